@@ -16,19 +16,33 @@
 
 package org.springframework.cloud.stream.binder.jms.activemq;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
+import javax.jms.InvalidSelectorException;
 import javax.jms.JMSException;
 import javax.jms.Queue;
 import javax.jms.Session;
 import javax.jms.Topic;
 
+import org.apache.activemq.ActiveMQConnection;
+import org.apache.activemq.command.ActiveMQDestination;
+import org.apache.activemq.command.DestinationInfo;
+import org.apache.activemq.selector.SelectorParser;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cloud.stream.binder.ExtendedConsumerProperties;
 import org.springframework.cloud.stream.binder.ExtendedProducerProperties;
 import org.springframework.cloud.stream.binder.jms.config.JmsCommonProperties;
@@ -47,18 +61,44 @@ import org.springframework.util.Assert;
 
 /**
  * {@link ProvisioningProvider} for ActiveMQ.
+ * <p>
+ * All bindings are provisioned over one shared connection and session, which
+ * are released once no destination was provisioned for
+ * {@link #setReleaseTimeout(long) releaseTimeout} milliseconds. Destinations
+ * are remembered by name until then, so each of them is provisioned at most
+ * once per connection, and again should it have been removed from the broker
+ * in the meantime.
  *
  */
 public class ActiveMQQueueProvisioner implements
-        ProvisioningProvider<ExtendedConsumerProperties<JmsConsumerProperties>, ExtendedProducerProperties<JmsProducerProperties>> {
+        ProvisioningProvider<ExtendedConsumerProperties<JmsConsumerProperties>, ExtendedProducerProperties<JmsProducerProperties>>,
+        DisposableBean {
 
     private static final Logger LOGGER = LoggerFactory
         .getLogger(ActiveMQQueueProvisioner.class);
 
+    private static final long DEFAULT_RELEASE_TIMEOUT = 30000;
+
     private final ConnectionFactory connectionFactory;
 
     private final DestinationNameResolver destinationNameResolver;
 
+    private final Map<String, Queue> provisionedQueues = new ConcurrentHashMap<>();
+
+    private final Map<String, Topic> provisionedTopics = new ConcurrentHashMap<>();
+
+    private final Object monitor = new Object();
+
+    private long releaseTimeout = ActiveMQQueueProvisioner.DEFAULT_RELEASE_TIMEOUT;
+
+    private Connection connection;
+
+    private Session session;
+
+    private ScheduledExecutorService releaseScheduler;
+
+    private ScheduledFuture<?> releaseTask;
+
     public ActiveMQQueueProvisioner(final ConnectionFactory connectionFactory,
             final DestinationNameResolver destinationNameResolver) {
 
@@ -66,6 +106,30 @@ public class ActiveMQQueueProvisioner implements
         this.destinationNameResolver = destinationNameResolver;
     }
 
+    @Override
+    public void destroy() {
+        synchronized (this.monitor) {
+            this.release();
+            if (this.releaseScheduler != null) {
+                this.releaseScheduler.shutdownNow();
+                this.releaseScheduler = null;
+            }
+        }
+    }
+
+    public long getReleaseTimeout() {
+        return this.releaseTimeout;
+    }
+
+    /**
+     * Milliseconds without provisioning after which the shared provisioning
+     * connection is closed. A value &lt;= 0 keeps it open until the
+     * provisioner is destroyed.
+     */
+    public void setReleaseTimeout(final long releaseTimeout) {
+        this.releaseTimeout = releaseTimeout;
+    }
+
     private Queue createQueue(
         final String destinationPattern,
         final String destinationName,
@@ -85,12 +149,92 @@ public class ActiveMQQueueProvisioner implements
                             destinationPattern,
                             groupName.replaceAll("\\.", "_"),
                             destinationName);
-        final Queue queue = session.createQueue(queueName);
-        //TODO: Understand why a producer is required to actually create the queue, it's not mentioned in ActiveMQ docs
-        session.createProducer(queue).close();
+        Queue queue = this.provisionedQueues.get(queueName);
+        if (queue == null) {
+            queue = session.createQueue(queueName);
+            this.addToBroker(session, queue);
+            this.provisionedQueues.put(queueName, queue);
+        }
         return queue;
     }
 
+    /**
+     * Creating a destination object on the session does not create it on the
+     * broker, ActiveMQ only does so once it is used. An ActiveMQ connection
+     * asks the broker directly, any other connection registers a producer.
+     */
+    private void addToBroker(final Session session, final Queue queue)
+            throws JMSException {
+        if (this.connection instanceof ActiveMQConnection
+                && queue instanceof ActiveMQDestination) {
+            final ActiveMQConnection activeMQConnection = (ActiveMQConnection) this.connection;
+            activeMQConnection.syncSendPacket(
+                new DestinationInfo(
+                    activeMQConnection.getConnectionInfo().getConnectionId(),
+                    DestinationInfo.ADD_OPERATION_TYPE,
+                    (ActiveMQDestination) queue));
+        }
+        else {
+            session.createProducer(queue).close();
+        }
+    }
+
+    /**
+     * Must be called holding the monitor; the session is only ever used by
+     * one thread at a time.
+     */
+    private Session obtainSession() throws JMSException {
+        if (this.releaseTask != null) {
+            this.releaseTask.cancel(false);
+            this.releaseTask = null;
+        }
+        if (this.session == null) {
+            this.connection = this.connectionFactory.createConnection();
+            this.session = this.connection
+                .createSession(false, Session.AUTO_ACKNOWLEDGE);
+        }
+        return this.session;
+    }
+
+    /**
+     * Must be called holding the monitor.
+     */
+    private void scheduleRelease() {
+        if (this.releaseTimeout <= 0 || this.session == null) {
+            return;
+        }
+        if (this.releaseScheduler == null) {
+            this.releaseScheduler = Executors
+                .newSingleThreadScheduledExecutor(r -> {
+                    final Thread thread = new Thread(r,
+                        "jms-binder-provisioner-release");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        }
+        this.releaseTask = this.releaseScheduler.schedule(() -> {
+            synchronized (this.monitor) {
+                this.release();
+            }
+        }, this.releaseTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Must be called holding the monitor.
+     */
+    private void release() {
+        if (this.releaseTask != null) {
+            this.releaseTask.cancel(false);
+            this.releaseTask = null;
+        }
+        JmsUtils.closeSession(this.session);
+        JmsUtils.closeConnection(this.connection);
+        this.session = null;
+        this.connection = null;
+        this.provisionedQueues.clear();
+        this.provisionedTopics.clear();
+    }
+
     @Override
     public ConsumerDestination provisionConsumerDestination(
         final String destinationName,
@@ -101,6 +245,9 @@ public class ActiveMQQueueProvisioner implements
             destinationName,
             "Destination should be at least one non-whitespace character");
 
+        ActiveMQQueueProvisioner
+            .validateSelector(properties.getExtension().getSelector());
+
         final String groupName = this.destinationNameResolver
             .buildGroupName(group, properties);
         final JmsCommonProperties extension = properties.getExtension();
@@ -112,16 +259,51 @@ public class ActiveMQQueueProvisioner implements
             "The queue pattern [" + queuePattern
                     + "] requires to specify a group to which this consumer belongs");
 
-        if (!extension.isBindQueueOnly()) {
-            this.provisionTopic(extension.getTopicPattern(), destinationName);
+        final List<Queue> queues = new ArrayList<>();
+        for (final DestinationNames destinationNames : this.destinationNameResolver
+            .resolveDestinationNamesForConsumer(
+                destinationName,
+                groupName,
+                properties)) {
+            if (!extension.isBindQueueOnly()) {
+                this.provisionTopic(
+                    extension.getTopicPattern(),
+                    destinationNames.getDestinationName());
+            }
+            final Queue[] groupQueues = this.provisionConsumerForGroups(
+                queuePattern,
+                destinationNames.getDestinationName(),
+                destinationNames.getGroupNames());
+            if (groupQueues != null && groupQueues.length > 0) {
+                queues.add(groupQueues[0]);
+            }
         }
-        final Queue[] queues = this.provisionConsumerForGroups(
-            queuePattern,
-            destinationName,
-            groupName);
 
-        return new JmsConsumerDestination(
-            (queues != null) && (queues.length > 0) ? queues[0] : null);
+        final JmsConsumerDestination consumerDestination = new JmsConsumerDestination(
+            queues.toArray(new Queue[queues.size()]));
+        final int prefetch = properties.getExtension().getPrefetch();
+        if (prefetch > 0) {
+            // Destination options are read by the ActiveMQ consumer, not the broker
+            consumerDestination.setOptions("consumer.prefetchSize=" + prefetch);
+        }
+        return consumerDestination;
+    }
+
+    /**
+     * Fails the binding rather than every attempt of its consumers to
+     * subscribe.
+     */
+    private static void validateSelector(final String selector) {
+        if (selector == null) {
+            return;
+        }
+        try {
+            SelectorParser.parse(selector);
+        }
+        catch (final InvalidSelectorException e) {
+            throw new IllegalArgumentException(
+                "Invalid selector [" + selector + "]", e);
+        }
     }
 
     private Queue[] provisionConsumerForGroups(
@@ -129,15 +311,13 @@ public class ActiveMQQueueProvisioner implements
         final String topicName,
         final String... consumerGroups) {
 
-        Connection activeMQConnection;
-        Session session;
-        Queue[] groups = null;
-        try {
-            activeMQConnection = this.connectionFactory.createConnection();
-            session = activeMQConnection
-                .createSession(true, Session.CLIENT_ACKNOWLEDGE);
-            if (ArrayUtils.isNotEmpty(consumerGroups)) {
-                groups = new Queue[consumerGroups.length];
+        if (ArrayUtils.isEmpty(consumerGroups)) {
+            return null;
+        }
+        final Queue[] groups = new Queue[consumerGroups.length];
+        synchronized (this.monitor) {
+            try {
+                final Session session = this.obtainSession();
                 for (int i = 0; i < consumerGroups.length; i++) {
                     groups[i] = this.createQueue(
                         consumerDestinationPattern,
@@ -146,13 +326,13 @@ public class ActiveMQQueueProvisioner implements
                         consumerGroups[i]);
                 }
             }
-
-            JmsUtils.commitIfNecessary(session);
-            JmsUtils.closeSession(session);
-            JmsUtils.closeConnection(activeMQConnection);
-        }
-        catch (final JMSException e) {
-            throw new IllegalStateException(e);
+            catch (final JMSException e) {
+                this.release();
+                throw new IllegalStateException(e);
+            }
+            finally {
+                this.scheduleRelease();
+            }
         }
 
         return groups;
@@ -169,16 +349,21 @@ public class ActiveMQQueueProvisioner implements
                 destinationName,
                 properties);
 
+        final boolean partitioned = properties.isPartitioned();
+        final Topic[] partitionTopics = new Topic[partitioned
+                ? properties.getPartitionCount()
+                : 0];
+        final String[][] partitionQueueNames = new String[partitionTopics.length][];
+
         String[] queueNames = null;
         String topicName = null;
         for (final DestinationNames destinationNames : topicAndQueueNames) {
             try {
+                Topic topic = null;
                 if (!extension.isBindQueueOnly()) {
-                    final Topic topic = this.provisionTopic(
+                    topic = this.provisionTopic(
                         extension.getTopicPattern(),
                         destinationNames.getDestinationName());
-                    topicName = topic.getTopicName();
-
                 }
 
                 final Queue[] queues = this.provisionConsumerForGroups(
@@ -186,12 +371,23 @@ public class ActiveMQQueueProvisioner implements
                     destinationNames.getDestinationName(),
                     destinationNames.getGroupNames());
 
+                String[] names = null;
                 if (queues != null) {
-                    queueNames = new String[queues.length];
+                    names = new String[queues.length];
                     for (int i = 0; i < queues.length; i++) {
-                        queueNames[i] = queues[i].getQueueName();
+                        names[i] = queues[i].getQueueName();
                     }
                 }
+
+                final Integer partition = destinationNames.getPartitionIndex();
+                if (partition != null) {
+                    partitionTopics[partition] = topic;
+                    partitionQueueNames[partition] = names;
+                }
+                else {
+                    topicName = topic != null ? topic.getTopicName() : null;
+                    queueNames = names;
+                }
             }
             catch (final JMSException e) {
                 ActiveMQQueueProvisioner.LOGGER.error(
@@ -200,6 +396,19 @@ public class ActiveMQQueueProvisioner implements
                     e);
             }
         }
+
+        if (partitioned) {
+            final JmsProducerDestination jmsProducerDestination = new JmsProducerDestination(
+                destinationName);
+            for (int partition = 0; partition < partitionTopics.length; partition++) {
+                jmsProducerDestination.addPartition(
+                    partition,
+                    partitionTopics[partition],
+                    partitionQueueNames[partition]);
+            }
+            return jmsProducerDestination;
+        }
+
         final JmsProducerDestination jmsProducerDestination = new JmsProducerDestination(
             topicName);
         jmsProducerDestination.setQueueNames(queueNames);
@@ -209,21 +418,23 @@ public class ActiveMQQueueProvisioner implements
     private Topic provisionTopic(
         final String topicPattern,
         final String topicName) {
-        Connection activeMQConnection;
-        Session session;
-        Topic topic = null;
-        try {
-            activeMQConnection = this.connectionFactory.createConnection();
-            session = activeMQConnection
-                .createSession(true, Session.CLIENT_ACKNOWLEDGE);
-            topic = session.createTopic(String.format(topicPattern, topicName));
-
-            JmsUtils.commitIfNecessary(session);
-            JmsUtils.closeSession(session);
-            JmsUtils.closeConnection(activeMQConnection);
+        final String name = String.format(topicPattern, topicName);
+        Topic topic = this.provisionedTopics.get(name);
+        if (topic != null) {
+            return topic;
         }
-        catch (final JMSException e) {
-            throw new IllegalStateException(e);
+        synchronized (this.monitor) {
+            try {
+                topic = this.obtainSession().createTopic(name);
+                this.provisionedTopics.put(name, topic);
+            }
+            catch (final JMSException e) {
+                this.release();
+                throw new IllegalStateException(e);
+            }
+            finally {
+                this.scheduleRelease();
+            }
         }
         return topic;
     }
@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.activemq;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.stream.binder.ExtendedConsumerProperties;
+import org.springframework.cloud.stream.binder.jms.activemq.config.NullAnonymousNamingStrategy;
+import org.springframework.cloud.stream.binder.jms.config.JmsConsumerProperties;
+import org.springframework.cloud.stream.binder.jms.utils.DestinationNameResolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Destinations provisioned over the shared, released provisioning connection.
+ */
+class ActiveMQQueueProvisionerTests {
+
+    private static final String QUEUE = "Consumer.audit.VirtualTopic.orders";
+
+    private EmbeddedBroker broker;
+
+    private ActiveMQQueueProvisioner provisioner;
+
+    @BeforeEach
+    void start() throws Exception {
+        this.broker = new EmbeddedBroker();
+        this.provisioner = new ActiveMQQueueProvisioner(
+            this.broker.connectionFactory(),
+            new DestinationNameResolver(new NullAnonymousNamingStrategy()));
+        this.provisioner.setReleaseTimeout(100);
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        this.provisioner.destroy();
+        this.broker.stop();
+    }
+
+    @Test
+    void removedQueueIsProvisionedAgainOnceTheConnectionWasReleased()
+            throws Exception {
+        this.provision();
+        assertThat(this.broker.getQueueNames()).contains(QUEUE);
+
+        this.broker.removeQueue(QUEUE);
+        Thread.sleep(500);
+        this.provision();
+
+        assertThat(this.broker.getQueueNames()).contains(QUEUE);
+    }
+
+    private void provision() {
+        this.provisioner.provisionConsumerDestination("orders", "audit",
+            new ExtendedConsumerProperties<>(new JmsConsumerProperties()));
+    }
+
+}
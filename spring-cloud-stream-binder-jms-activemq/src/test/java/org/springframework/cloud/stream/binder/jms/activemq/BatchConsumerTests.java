@@ -0,0 +1,157 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.springframework.cloud.stream.binder.jms.activemq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.cloud.stream.binder.jms.JmsBatchMessageDrivenEndpoint;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.messaging.Message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Consumer bindings in batch mode, handed the messages of a queue in batches
+ * of <code>batchSize</code>.
+ */
+class BatchConsumerTests {
+
+    private static final String QUEUE = "Consumer.reporting.VirtualTopic.readings";
+
+    private EmbeddedBroker broker;
+
+    @BeforeEach
+    void startBroker() throws Exception {
+        this.broker = new EmbeddedBroker();
+        // Queued before the binding starts, for the batches to be full
+        final JmsTemplate jmsTemplate = this.broker.jmsTemplate();
+        for (int i = 0; i < 25; i++) {
+            jmsTemplate.convertAndSend(BatchConsumerTests.QUEUE, "reading-" + i);
+        }
+    }
+
+    @AfterEach
+    void stopBroker() throws Exception {
+        this.broker.stop();
+    }
+
+    @Test
+    void backlogIsHandedOverInBatches() throws Exception {
+        try (ConfigurableApplicationContext context = this.run(Config.class)) {
+            final Recorder sink = context.getBean(Recorder.class);
+
+            final List<String> received = new ArrayList<>();
+            for (final int size : new int[] { 10, 10, 5 }) {
+                final Message<List<String>> batch = sink.batches.poll(5,
+                    TimeUnit.SECONDS);
+                assertThat(batch.getPayload()).hasSize(size);
+                assertThat(batch.getHeaders().get(
+                    JmsBatchMessageDrivenEndpoint.BATCH_HEADERS, List.class))
+                        .hasSize(size);
+                received.addAll(batch.getPayload());
+            }
+            for (int i = 0; i < 25; i++) {
+                assertThat(received.get(i)).isEqualTo("reading-" + i);
+            }
+            assertThat(sink.batches.poll(500, TimeUnit.MILLISECONDS)).isNull();
+        }
+    }
+
+    @Test
+    void failedBatchIsRetriedAsAWhole() throws Exception {
+        try (ConfigurableApplicationContext context = this
+            .run(FailingOnceConfig.class)) {
+            final Recorder sink = context.getBean(Recorder.class);
+
+            final List<String> firstAttempt = sink.batches.poll(5, TimeUnit.SECONDS)
+                .getPayload();
+            final List<String> secondAttempt = sink.batches
+                .poll(5, TimeUnit.SECONDS).getPayload();
+            assertThat(secondAttempt).isEqualTo(firstAttempt).hasSize(10);
+            assertThat(sink.batches.poll(5, TimeUnit.SECONDS).getPayload())
+                .hasSize(10).doesNotContainAnyElementsOf(firstAttempt);
+        }
+    }
+
+    private ConfigurableApplicationContext run(final Class<?> configuration) {
+        return this.broker.run(configuration,
+            "--spring.cloud.stream.bindings.sink-in-0.destination=readings",
+            "--spring.cloud.stream.bindings.sink-in-0.group=reporting",
+            "--spring.cloud.stream.bindings.sink-in-0.content-type=text/plain",
+            "--spring.cloud.stream.bindings.sink-in-0.consumer.batch-mode=true",
+            "--spring.cloud.stream.bindings.sink-in-0.consumer.back-off-initial-interval=10",
+            "--spring.cloud.stream.jms.bindings.sink-in-0.consumer.batch-size=10",
+            "--spring.cloud.stream.jms.bindings.sink-in-0.consumer.batch-timeout=300");
+    }
+
+    static class Recorder implements Consumer<Message<List<String>>> {
+
+        private final BlockingQueue<Message<List<String>>> batches = new LinkedBlockingQueue<>();
+
+        private final AtomicInteger failures;
+
+        Recorder(final int failures) {
+            this.failures = new AtomicInteger(failures);
+        }
+
+        @Override
+        public void accept(final Message<List<String>> batch) {
+            this.batches.add(batch);
+            if (this.failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("rejected");
+            }
+        }
+
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    static class Config {
+
+        @Bean
+        public Recorder sink() {
+            return new Recorder(0);
+        }
+
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    static class FailingOnceConfig {
+
+        @Bean
+        public Recorder sink() {
+            return new Recorder(1);
+        }
+
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.springframework.cloud.stream.binder.jms.activemq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.jms.core.JmsTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Producer bindings sending in transacted batches of <code>batchSize</code>.
+ */
+class BatchingProducerTests {
+
+    private static final String QUEUE = "Consumer.audit.VirtualTopic.events";
+
+    private EmbeddedBroker broker;
+
+    private ConfigurableApplicationContext context;
+
+    @BeforeEach
+    void start() throws Exception {
+        this.broker = new EmbeddedBroker();
+        this.context = this.broker.run(Config.class,
+            "--spring.cloud.stream.bindings.out-0.destination=events",
+            "--spring.cloud.stream.bindings.out-0.producer.required-groups=audit",
+            "--spring.cloud.stream.jms.bindings.out-0.producer.batch-size=10",
+            "--spring.cloud.stream.jms.bindings.out-0.producer.batch-timeout=300",
+            "--spring.cloud.stream.jms.bindings.out-0.producer.priority=2");
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        this.context.close();
+        this.broker.stop();
+    }
+
+    @Test
+    void partialBatchIsSentOnceItsTimeoutElapsed() throws Exception {
+        final StreamBridge streamBridge = this.context.getBean(StreamBridge.class);
+        final JmsTemplate jmsTemplate = this.broker.jmsTemplate();
+
+        for (int i = 0; i < 3; i++) {
+            streamBridge.send("out-0", "event-" + i);
+        }
+        final long start = System.nanoTime();
+        jmsTemplate.setReceiveTimeout(100);
+        assertThat(jmsTemplate.receive(QUEUE)).isNull();
+
+        jmsTemplate.setReceiveTimeout(5000);
+        for (int i = 0; i < 3; i++) {
+            assertThat(EmbeddedBroker.text(jmsTemplate.receive(QUEUE)))
+                .isEqualTo("event-" + i);
+        }
+        // Well within twice the timeout, which is how long the oldest message could wait
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+            .isBetween(200L, 550L);
+    }
+
+    @Test
+    void messagesOfEachSenderKeepTheirOrder() throws Exception {
+        final StreamBridge streamBridge = this.context.getBean(StreamBridge.class);
+        final int senders = 4;
+        final int messagesPerSender = 250;
+
+        // Binds the output, which racing first sends would each do
+        streamBridge.send("out-0", "first");
+        final ExecutorService executor = Executors.newFixedThreadPool(senders);
+        try {
+            final List<Future<?>> sends = new ArrayList<>();
+            for (int sender = 0; sender < senders; sender++) {
+                final int id = sender;
+                sends.add(executor.submit(() -> {
+                    for (int i = 0; i < messagesPerSender; i++) {
+                        streamBridge.send("out-0", id + ":" + i);
+                    }
+                }));
+            }
+            for (final Future<?> send : sends) {
+                send.get(30, TimeUnit.SECONDS);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        final JmsTemplate jmsTemplate = this.broker.jmsTemplate();
+        assertThat(EmbeddedBroker.text(jmsTemplate.receive(QUEUE)))
+            .isEqualTo("first");
+        final int[] next = new int[senders];
+        for (int received = 0; received < senders * messagesPerSender; received++) {
+            final String message = EmbeddedBroker
+                .text(jmsTemplate.receive(QUEUE));
+            assertThat(message).isNotNull();
+            final String[] parts = message.split(":");
+            final int sender = Integer.parseInt(parts[0]);
+            assertThat(Integer.parseInt(parts[1])).isEqualTo(next[sender]++);
+        }
+    }
+
+    @Test
+    void priorityHeaderTakesPrecedenceOverTheBinding() throws Exception {
+        final StreamBridge streamBridge = this.context.getBean(StreamBridge.class);
+
+        streamBridge.send("out-0",
+            MessageBuilder.withPayload("urgent").setPriority(7).build());
+        streamBridge.send("out-0", "routine");
+
+        final JmsTemplate jmsTemplate = this.broker.jmsTemplate();
+        assertThat(jmsTemplate.receive(QUEUE).getJMSPriority()).isEqualTo(7);
+        assertThat(jmsTemplate.receive(QUEUE).getJMSPriority()).isEqualTo(2);
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    static class Config {
+
+    }
+
+}
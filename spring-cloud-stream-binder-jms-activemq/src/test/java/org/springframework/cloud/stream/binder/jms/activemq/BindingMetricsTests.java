@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.springframework.cloud.stream.binder.jms.activemq;
+
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.cloud.stream.binder.jms.metrics.MicrometerBindingMetrics;
+import org.springframework.cloud.stream.binding.BindingService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Meters shared by the consumer bindings of a destination and group.
+ */
+class BindingMetricsTests {
+
+    private EmbeddedBroker broker;
+
+    @BeforeEach
+    void startBroker() throws Exception {
+        this.broker = new EmbeddedBroker();
+    }
+
+    @AfterEach
+    void stopBroker() throws Exception {
+        this.broker.stop();
+    }
+
+    @Test
+    void metersAreRemovedWithTheLastBindingUsingThem() throws Exception {
+        try (ConfigurableApplicationContext context = this.broker.run(
+            Config.class,
+            "--spring.cloud.function.definition=audit;archive",
+            "--spring.cloud.stream.bindings.audit-in-0.destination=orders",
+            "--spring.cloud.stream.bindings.audit-in-0.group=records",
+            "--spring.cloud.stream.bindings.archive-in-0.destination=orders",
+            "--spring.cloud.stream.bindings.archive-in-0.group=records",
+            "--spring.cloud.stream.jms.bindings.archive-in-0.consumer.reactive=true")) {
+            final MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            final BindingService bindingService = context
+                .getBean(BindingService.class);
+            assertThat(BindingMetricsTests.handleTimers(meterRegistry)).isTrue();
+
+            bindingService.unbindConsumers("archive-in-0");
+            assertThat(BindingMetricsTests.handleTimers(meterRegistry)).isTrue();
+
+            bindingService.unbindConsumers("audit-in-0");
+            assertThat(BindingMetricsTests.handleTimers(meterRegistry)).isFalse();
+        }
+    }
+
+    private static boolean handleTimers(final MeterRegistry meterRegistry) {
+        return !meterRegistry.find(MicrometerBindingMetrics.PREFIX + "handle")
+            .tag("group", "records").timers().isEmpty();
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    static class Config {
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        public Consumer<String> audit() {
+            return order -> {
+            };
+        }
+
+        @Bean
+        public Consumer<String> archive() {
+            return order -> {
+            };
+        }
+
+    }
+
+}
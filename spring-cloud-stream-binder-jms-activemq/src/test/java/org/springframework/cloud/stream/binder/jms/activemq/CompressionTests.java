@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.springframework.cloud.stream.binder.jms.activemq;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.jms.BytesMessage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.cloud.stream.binder.jms.utils.SpecCompliantJmsHeaderMapper;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jms.core.JmsTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Producer bindings compressing large payloads, decompressed by the consumer
+ * bindings.
+ */
+class CompressionTests {
+
+    private static final String RAW_QUEUE = "Consumer.raw.VirtualTopic.orders";
+
+    private EmbeddedBroker broker;
+
+    @BeforeEach
+    void startBroker() throws Exception {
+        this.broker = new EmbeddedBroker();
+    }
+
+    @AfterEach
+    void stopBroker() throws Exception {
+        this.broker.stop();
+    }
+
+    @Test
+    void largePayloadIsSentCompressed() throws Exception {
+        try (ConfigurableApplicationContext context = this.broker.run(
+            Config.class,
+            "--spring.cloud.stream.bindings.sink-in-0.destination=orders",
+            "--spring.cloud.stream.bindings.sink-in-0.group=fulfilment",
+            "--spring.cloud.stream.bindings.out-0.destination=orders",
+            "--spring.cloud.stream.bindings.out-0.producer.required-groups=fulfilment,raw",
+            "--spring.cloud.stream.jms.bindings.out-0.producer.compression=deflate",
+            "--spring.cloud.stream.jms.bindings.out-0.producer.compression-threshold=1024")) {
+            final String payload = CompressionTests.orders(300);
+            final StreamBridge streamBridge = context.getBean(StreamBridge.class);
+            streamBridge.send("out-0", payload);
+            streamBridge.send("out-0", "small");
+
+            final Recorder sink = context.getBean(Recorder.class);
+            assertThat(sink.received.poll(5, TimeUnit.SECONDS)).isEqualTo(payload);
+            assertThat(sink.received.poll(5, TimeUnit.SECONDS)).isEqualTo("small");
+
+            // As sent, read by an application not using the binder
+            final JmsTemplate jmsTemplate = this.broker.jmsTemplate();
+            final BytesMessage raw = (BytesMessage) jmsTemplate.receive(RAW_QUEUE);
+            assertThat(raw.propertyExists(SpecCompliantJmsHeaderMapper.COMPRESSION))
+                .isTrue();
+            assertThat(raw.getBodyLength()).isLessThan(payload.length() / 4);
+            final javax.jms.Message rawSmall = jmsTemplate.receive(RAW_QUEUE);
+            assertThat(rawSmall.propertyExists(SpecCompliantJmsHeaderMapper.COMPRESSION))
+                .isFalse();
+            assertThat(EmbeddedBroker.text(rawSmall)).isEqualTo("small");
+        }
+    }
+
+    private static String orders(final int count) {
+        final StringBuilder orders = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            orders.append(i == 0 ? "" : ",").append("{\"orderId\":").append(i)
+                .append(",\"status\":\"NEW\"}");
+        }
+        return orders.append(']').toString();
+    }
+
+    static class Recorder implements Consumer<String> {
+
+        private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+        @Override
+        public void accept(final String order) {
+            this.received.add(order);
+        }
+
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    static class Config {
+
+        @Bean
+        public Recorder sink() {
+            return new Recorder();
+        }
+
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.springframework.cloud.stream.binder.jms.activemq;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test of a consumer binding whose handler takes a fixed time per
+ * message: the time to drain a backlog must shrink with the consumers.
+ */
+class ConsumerConcurrencyTests {
+
+    private static final int MESSAGES = 80;
+
+    private static final long HANDLING_MILLIS = 25;
+
+    private EmbeddedBroker broker;
+
+    @BeforeEach
+    void startBroker() throws Exception {
+        this.broker = new EmbeddedBroker();
+    }
+
+    @AfterEach
+    void stopBroker() throws Exception {
+        this.broker.stop();
+    }
+
+    @Test
+    void throughputScalesWithConcurrency() throws Exception {
+        final Run oneConsumer = this.drainBacklog(
+            "--spring.cloud.stream.bindings.sink-in-0.consumer.concurrency=1");
+        final Run fourConsumers = this.drainBacklog(
+            "--spring.cloud.stream.bindings.sink-in-0.consumer.concurrency=4");
+
+        assertThat(oneConsumer.maxConcurrentHandlers).isEqualTo(1);
+        assertThat(fourConsumers.maxConcurrentHandlers).isEqualTo(4);
+        assertThat(oneConsumer.elapsedMillis)
+            .isGreaterThanOrEqualTo(MESSAGES * HANDLING_MILLIS);
+        assertThat(fourConsumers.elapsedMillis * 2)
+            .isLessThan(oneConsumer.elapsedMillis);
+    }
+
+    @Test
+    void consumersAreAddedUpToMaxConcurrencyUnderBacklog() throws Exception {
+        final Run run = this.drainBacklog(
+            "--spring.cloud.stream.bindings.sink-in-0.consumer.concurrency=1",
+            "--spring.cloud.stream.jms.bindings.sink-in-0.consumer.max-concurrency=4");
+
+        assertThat(run.maxConcurrentHandlers).isBetween(2, 4);
+        assertThat(run.elapsedMillis).isLessThan(MESSAGES * HANDLING_MILLIS);
+    }
+
+    private Run drainBacklog(final String... properties) throws Exception {
+        final String destination = "orders-" + System.nanoTime();
+        final String[] arguments = new String[properties.length + 5];
+        System.arraycopy(properties, 0, arguments, 0, properties.length);
+        arguments[properties.length] = "--spring.cloud.stream.bindings.sink-in-0.destination="
+                + destination;
+        arguments[properties.length + 1] = "--spring.cloud.stream.bindings.sink-in-0.group=ingest";
+        // One message per consumer at a time, so that they all get a share
+        arguments[properties.length + 2] = "--spring.cloud.stream.jms.bindings.sink-in-0.consumer.prefetch=1";
+        arguments[properties.length + 3] = "--spring.cloud.stream.bindings.out-0.destination="
+                + destination;
+        arguments[properties.length + 4] = "--spring.cloud.stream.bindings.out-0.producer.required-groups=ingest";
+
+        try (ConfigurableApplicationContext context = this.broker
+            .run(Config.class, arguments)) {
+            final SlowSink sink = context.getBean(SlowSink.class);
+            final StreamBridge streamBridge = context.getBean(StreamBridge.class);
+            final long start = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                streamBridge.send("out-0", "order-" + i);
+            }
+            assertThat(sink.handled.await(30, TimeUnit.SECONDS)).isTrue();
+            return new Run(
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                sink.maxConcurrentHandlers.get());
+        }
+    }
+
+    private static final class Run {
+
+        private final long elapsedMillis;
+
+        private final int maxConcurrentHandlers;
+
+        Run(final long elapsedMillis, final int maxConcurrentHandlers) {
+            this.elapsedMillis = elapsedMillis;
+            this.maxConcurrentHandlers = maxConcurrentHandlers;
+        }
+
+    }
+
+    static class SlowSink implements Consumer<String> {
+
+        private final CountDownLatch handled = new CountDownLatch(MESSAGES);
+
+        private final AtomicInteger concurrentHandlers = new AtomicInteger();
+
+        private final AtomicInteger maxConcurrentHandlers = new AtomicInteger();
+
+        @Override
+        public void accept(final String order) {
+            this.maxConcurrentHandlers.accumulateAndGet(
+                this.concurrentHandlers.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(HANDLING_MILLIS);
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                this.concurrentHandlers.decrementAndGet();
+            }
+            this.handled.countDown();
+        }
+
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    static class Config {
+
+        @Bean
+        SlowSink sink() {
+            return new SlowSink();
+        }
+
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.springframework.cloud.stream.binder.jms.activemq;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.TextMessage;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.command.ActiveMQDestination;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jms.core.JmsTemplate;
+
+/**
+ * Runs applications using the binder against an embedded broker.
+ * <p>
+ * The broker is started by the test rather than by the first connection, so
+ * that it outlives the application and what the binder left on it can be
+ * looked at once the application is closed.
+ */
+final class EmbeddedBroker {
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private final BrokerService brokerService = new BrokerService();
+
+    EmbeddedBroker() throws Exception {
+        this.brokerService.setBrokerName(
+            "binder-test-" + EmbeddedBroker.COUNTER.incrementAndGet());
+        this.brokerService.setPersistent(false);
+        this.brokerService.setUseJmx(false);
+        this.brokerService.start();
+        this.brokerService.waitUntilStarted();
+    }
+
+    String getUrl() {
+        return "vm://" + this.brokerService.getBrokerName() + "?create=false";
+    }
+
+    ActiveMQConnectionFactory connectionFactory() {
+        return new ActiveMQConnectionFactory(this.getUrl());
+    }
+
+    /**
+     * @return a template receiving with a timeout, for the messages the
+     * application sent
+     */
+    JmsTemplate jmsTemplate() {
+        final JmsTemplate jmsTemplate = new JmsTemplate(this.connectionFactory());
+        jmsTemplate.setReceiveTimeout(5000);
+        return jmsTemplate;
+    }
+
+    /**
+     * @param properties command line arguments, e.g.
+     * <code>--spring.cloud.stream.bindings.sink-in-0.destination=orders</code>
+     */
+    ConfigurableApplicationContext run(
+        final Class<?> configuration,
+        final String... properties) {
+        return new SpringApplicationBuilder(configuration)
+            .web(WebApplicationType.NONE)
+            .run(Stream
+                .concat(
+                    Stream.of("--spring.activemq.broker-url=" + this.getUrl(),
+                        "--logging.level.root=WARN"),
+                    Stream.of(properties))
+                .toArray(String[]::new));
+    }
+
+    /**
+     * @return the physical names of the queues the broker holds
+     */
+    Set<String> getQueueNames() throws Exception {
+        return this.brokerService.getRegionBroker().getDestinationMap().keySet()
+            .stream().filter(ActiveMQDestination::isQueue)
+            .map(ActiveMQDestination::getPhysicalName)
+            .collect(Collectors.toSet());
+    }
+
+    void removeQueue(final String name) throws Exception {
+        this.brokerService.removeDestination(new ActiveMQQueue(name));
+    }
+
+    /**
+     * @return the body of a message the binder sent, <code>null</code> for no
+     * message
+     */
+    static String text(final Message message) throws JMSException {
+        if (message == null || message instanceof TextMessage) {
+            return message == null ? null : ((TextMessage) message).getText();
+        }
+        final BytesMessage bytesMessage = (BytesMessage) message;
+        final byte[] body = new byte[(int) bytesMessage.getBodyLength()];
+        bytesMessage.readBytes(body);
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    void stop() throws Exception {
+        this.brokerService.stop();
+        this.brokerService.waitUntilStopped();
+    }
+
+}
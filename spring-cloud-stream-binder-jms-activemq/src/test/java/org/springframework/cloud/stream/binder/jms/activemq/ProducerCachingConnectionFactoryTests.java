@@ -0,0 +1,100 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.activemq;
+
+import javax.jms.Connection;
+import javax.jms.Session;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.stream.binder.jms.utils.ProducerCachingConnectionFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sessions counted and released by the producers' caching connection factory.
+ */
+class ProducerCachingConnectionFactoryTests {
+
+    private EmbeddedBroker broker;
+
+    private ProducerCachingConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void start() throws Exception {
+        this.broker = new EmbeddedBroker();
+        this.connectionFactory = new ProducerCachingConnectionFactory(
+            this.broker.connectionFactory());
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        this.connectionFactory.destroy();
+        this.broker.stop();
+    }
+
+    @Test
+    void sessionsInUseAreCounted() throws Exception {
+        this.connectionFactory.afterPropertiesSet();
+        final Connection connection = this.connectionFactory.createConnection();
+
+        final Session first = connection.createSession(false,
+            Session.AUTO_ACKNOWLEDGE);
+        final Session second = connection.createSession(false,
+            Session.AUTO_ACKNOWLEDGE);
+        assertThat(this.connectionFactory.getActiveSessionCount()).isEqualTo(2);
+
+        first.close();
+        assertThat(this.connectionFactory.getActiveSessionCount()).isEqualTo(1);
+        second.close();
+        assertThat(this.connectionFactory.getActiveSessionCount()).isZero();
+
+        connection.createSession(false, Session.AUTO_ACKNOWLEDGE).close();
+        assertThat(this.connectionFactory.getActiveSessionCount()).isZero();
+    }
+
+    @Test
+    void sessionInUseIsNotReleasedWhenIdle() throws Exception {
+        this.connectionFactory.setIdleTimeout(100);
+        this.connectionFactory.afterPropertiesSet();
+        final Connection connection = this.connectionFactory.createConnection();
+        final Session session = connection.createSession(false,
+            Session.AUTO_ACKNOWLEDGE);
+
+        Thread.sleep(500);
+        session.createProducer(session.createQueue("orders"))
+            .send(session.createTextMessage("order-1"));
+        session.close();
+        assertThat(this.connectionFactory.getActiveSessionCount()).isZero();
+
+        Thread.sleep(500);
+        final Session next = this.connectionFactory.createConnection()
+            .createSession(false, Session.AUTO_ACKNOWLEDGE);
+        next.createProducer(next.createQueue("orders"))
+            .send(next.createTextMessage("order-2"));
+        next.close();
+
+        assertThat(EmbeddedBroker
+            .text(this.broker.jmsTemplate().receive("orders")))
+                .isEqualTo("order-1");
+        assertThat(EmbeddedBroker
+            .text(this.broker.jmsTemplate().receive("orders")))
+                .isEqualTo("order-2");
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.springframework.cloud.stream.binder.jms.activemq;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.cloud.stream.binder.jms.ReactiveJmsSendingMessageHandler;
+import org.springframework.cloud.stream.binder.jms.utils.RepublishMessageRecoverer;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.messaging.Message;
+
+import reactor.core.publisher.Flux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reactive producer and consumer bindings.
+ */
+class ReactiveTests {
+
+    private static final int MESSAGES = 200;
+
+    private EmbeddedBroker broker;
+
+    @BeforeEach
+    void startBroker() throws Exception {
+        this.broker = new EmbeddedBroker();
+    }
+
+    @AfterEach
+    void stopBroker() throws Exception {
+        this.broker.stop();
+    }
+
+    @Test
+    void everyMessageIsHandledOnceSucceeded() throws Exception {
+        try (ConfigurableApplicationContext context = this.broker.run(
+            Config.class,
+            "--spring.cloud.stream.bindings.sink-in-0.destination=orders",
+            "--spring.cloud.stream.bindings.sink-in-0.group=fulfilment",
+            "--spring.cloud.stream.bindings.sink-in-0.consumer.concurrency=2",
+            "--spring.cloud.stream.bindings.sink-in-0.consumer.back-off-initial-interval=10",
+            "--spring.cloud.stream.jms.bindings.sink-in-0.consumer.reactive=true",
+            "--spring.cloud.stream.bindings.out-0.destination=orders",
+            "--spring.cloud.stream.jms.bindings.out-0.producer.reactive=true",
+            "--spring.cloud.stream.jms.bindings.out-0.producer.batch-size=10",
+            "--spring.cloud.stream.jms.bindings.out-0.producer.max-in-flight=20")) {
+            final StreamBridge streamBridge = context.getBean(StreamBridge.class);
+            for (int i = 0; i < ReactiveTests.MESSAGES; i++) {
+                streamBridge.send("out-0", "order-" + i);
+            }
+
+            final Rejecting sink = context.getBean(Rejecting.class);
+            assertThat(sink.handled.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(sink.attempts).hasSize(ReactiveTests.MESSAGES);
+            assertThat(sink.attempts.get("order-5")).hasValue(2);
+            assertThat(sink.attempts.values()).filteredOn(count -> count.get() > 1)
+                .hasSize(1);
+        }
+    }
+
+    @Test
+    void exhaustedMessageIsDeadLettered() throws Exception {
+        try (ConfigurableApplicationContext context = this.broker.run(
+            DeadLetterConfig.class,
+            "--spring.cloud.stream.bindings.sink-in-0.destination=orders",
+            "--spring.cloud.stream.bindings.sink-in-0.group=fulfilment",
+            "--spring.cloud.stream.bindings.sink-in-0.consumer.max-attempts=3",
+            "--spring.cloud.stream.bindings.sink-in-0.consumer.back-off-initial-interval=10",
+            "--spring.cloud.stream.jms.bindings.sink-in-0.consumer.reactive=true",
+            "--spring.cloud.stream.jms.bindings.sink-in-0.consumer.dlq-name=orders.dlq",
+            "--spring.cloud.stream.bindings.out-0.destination=orders")) {
+            final StreamBridge streamBridge = context.getBean(StreamBridge.class);
+            for (int i = 0; i < 10; i++) {
+                streamBridge.send("out-0", "order-" + i);
+            }
+
+            final JmsTemplate jmsTemplate = this.broker.jmsTemplate();
+            final javax.jms.Message deadLetter = jmsTemplate.receive("orders.dlq");
+            assertThat(EmbeddedBroker.text(deadLetter)).isEqualTo("order-5");
+            assertThat(deadLetter.getStringProperty(
+                RepublishMessageRecoverer.X_EXCEPTION_MESSAGE)).isEqualTo("rejected");
+
+            final Rejecting sink = context.getBean(Rejecting.class);
+            assertThat(sink.handled.await(10, TimeUnit.SECONDS)).isTrue();
+            // Acknowledged once dead lettered, not redelivered
+            jmsTemplate.setReceiveTimeout(500);
+            assertThat(jmsTemplate.receive("orders.dlq")).isNull();
+            assertThat(sink.attempts.get("order-5")).hasValue(3);
+        }
+    }
+
+    @Test
+    void publisherIsSentInBatchesAtItsOwnPace() throws Exception {
+        final JmsTemplate jmsTemplate = this.broker.jmsTemplate();
+        // Batches time out while others are being sent
+        final ReactiveJmsSendingMessageHandler handler = new ReactiveJmsSendingMessageHandler(
+            jmsTemplate, "orders", 10, 5, 20);
+        handler.setBeanFactory(new DefaultListableBeanFactory());
+        handler.afterPropertiesSet();
+
+        final List<Message<?>> sent = handler
+            .send(Flux.range(0, 500).delayElements(Duration.ofMillis(1))
+                .map(i -> MessageBuilder.withPayload("order-" + i).build()))
+            .collectList().block(Duration.ofSeconds(30));
+
+        assertThat(sent).hasSize(500);
+        for (int i = 0; i < 500; i++) {
+            assertThat(EmbeddedBroker.text(jmsTemplate.receive("orders")))
+                .isEqualTo("order-" + i);
+        }
+    }
+
+    /**
+     * Rejects the first attempts to handle <code>order-5</code>.
+     */
+    static class Rejecting implements Consumer<String> {
+
+        private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+        private final CountDownLatch handled;
+
+        private final int rejections;
+
+        Rejecting(final int expectedHandled, final int rejections) {
+            this.handled = new CountDownLatch(expectedHandled);
+            this.rejections = rejections;
+        }
+
+        @Override
+        public void accept(final String order) {
+            if (this.attempts.computeIfAbsent(order, key -> new AtomicInteger())
+                .incrementAndGet() <= this.rejections && "order-5".equals(order)) {
+                throw new IllegalStateException("rejected");
+            }
+            this.handled.countDown();
+        }
+
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    static class Config {
+
+        @Bean
+        public Rejecting sink() {
+            return new Rejecting(ReactiveTests.MESSAGES, 1);
+        }
+
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    static class DeadLetterConfig {
+
+        @Bean
+        public Rejecting sink() {
+            return new Rejecting(9, Integer.MAX_VALUE);
+        }
+
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.springframework.cloud.stream.binder.jms.activemq;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.jms.Message;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.cloud.stream.binder.jms.requestreply.RequestReplyMessageHandler;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.jms.core.JmsTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Producer bindings sending requests and completing their future with the
+ * reply correlated to them.
+ */
+class RequestReplyTests {
+
+    private static final String QUEUE = "Consumer.service.VirtualTopic.rpc";
+
+    private EmbeddedBroker broker;
+
+    private ConfigurableApplicationContext context;
+
+    @BeforeEach
+    void start() throws Exception {
+        this.broker = new EmbeddedBroker();
+        this.context = this.broker.run(Config.class,
+            "--spring.cloud.stream.bindings.out-0.destination=rpc",
+            "--spring.cloud.stream.bindings.out-0.producer.required-groups=service",
+            "--spring.cloud.stream.jms.bindings.out-0.producer.request-reply=true",
+            "--spring.cloud.stream.jms.bindings.out-0.producer.reply-timeout=500");
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        if (this.context.isActive()) {
+            this.context.close();
+        }
+        this.broker.stop();
+    }
+
+    @Test
+    void replyCompletesTheFutureOfItsRequest() throws Exception {
+        final CompletableFuture<org.springframework.messaging.Message<?>> first = this
+            .request("first");
+        final CompletableFuture<org.springframework.messaging.Message<?>> second = this
+            .request("second");
+
+        final JmsTemplate jmsTemplate = this.broker.jmsTemplate();
+        final Message firstRequest = jmsTemplate.receive(QUEUE);
+        final Message secondRequest = jmsTemplate.receive(QUEUE);
+        // Answered out of order
+        this.reply(jmsTemplate, secondRequest);
+        this.reply(jmsTemplate, firstRequest);
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getPayload())
+            .isEqualTo("re:first");
+        assertThat(second.get(5, TimeUnit.SECONDS).getPayload())
+            .isEqualTo("re:second");
+    }
+
+    @Test
+    void requestWithoutReplyTimesOut() throws Exception {
+        final CompletableFuture<org.springframework.messaging.Message<?>> future = this
+            .request("unanswered");
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void replyQueueIsDeletedWithTheBinding() throws Exception {
+        // Binds the output
+        this.request("unanswered");
+        assertThat(this.broker.getQueueNames())
+            .anyMatch(name -> name.startsWith("spring.reply-"));
+
+        this.context.close();
+
+        assertThat(this.broker.getQueueNames())
+            .noneMatch(name -> name.startsWith("spring.reply-"));
+    }
+
+    private CompletableFuture<org.springframework.messaging.Message<?>> request(
+        final String payload) {
+        final CompletableFuture<org.springframework.messaging.Message<?>> future = new CompletableFuture<>();
+        this.context.getBean(StreamBridge.class).send("out-0",
+            MessageBuilder.withPayload(payload)
+                .setHeader(RequestReplyMessageHandler.REPLY_FUTURE, future)
+                .build());
+        return future;
+    }
+
+    private void reply(final JmsTemplate jmsTemplate, final Message request)
+            throws Exception {
+        final String body = "re:" + EmbeddedBroker.text(request);
+        final String correlationId = request.getJMSCorrelationID();
+        jmsTemplate.send(request.getJMSReplyTo(), session -> {
+            final Message reply = session.createTextMessage(body);
+            reply.setJMSCorrelationID(correlationId);
+            return reply;
+        });
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    static class Config {
+
+    }
+
+}
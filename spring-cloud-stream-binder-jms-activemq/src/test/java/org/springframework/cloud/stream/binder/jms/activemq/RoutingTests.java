@@ -0,0 +1,164 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.springframework.cloud.stream.binder.jms.activemq;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.cloud.stream.binder.jms.utils.RepublishMessageRecoverer;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.messaging.Message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Consumer bindings of one destination and group sharing a container, each
+ * handed the messages its route accepts.
+ */
+class RoutingTests {
+
+    private static final String[] BINDINGS = {
+        "--spring.cloud.function.definition=all;typeB",
+        "--spring.cloud.stream.bindings.all-in-0.destination=events",
+        "--spring.cloud.stream.bindings.all-in-0.group=service",
+        "--spring.cloud.stream.bindings.typeB-in-0.destination=events",
+        "--spring.cloud.stream.bindings.typeB-in-0.group=service",
+        "--spring.cloud.stream.bindings.typeB-in-0.consumer.max-attempts=3",
+        "--spring.cloud.stream.bindings.typeB-in-0.consumer.back-off-initial-interval=10",
+        "--spring.cloud.stream.jms.bindings.all-in-0.consumer.route=true",
+        "--spring.cloud.stream.jms.bindings.typeB-in-0.consumer.route=headers['type'] == 'b'",
+        "--spring.cloud.stream.jms.bindings.typeB-in-0.consumer.dlq-name=typeB.dlq",
+        "--spring.cloud.stream.bindings.out-0.destination=events",
+        "--spring.cloud.stream.bindings.out-0.producer.required-groups=service" };
+
+    private EmbeddedBroker broker;
+
+    @BeforeEach
+    void startBroker() throws Exception {
+        this.broker = new EmbeddedBroker();
+    }
+
+    @AfterEach
+    void stopBroker() throws Exception {
+        this.broker.stop();
+    }
+
+    @Test
+    void failingRouteRetriesAndDeadLettersOnItsOwn() throws Exception {
+        try (ConfigurableApplicationContext context = this.broker.run(Config.class,
+            RoutingTests.BINDINGS)) {
+            final StreamBridge streamBridge = context.getBean(StreamBridge.class);
+            for (final String type : new String[] { "a", "b", "a" }) {
+                streamBridge.send("out-0", MessageBuilder.withPayload(type)
+                    .setHeader("type", type).build());
+            }
+
+            final Recorder all = context.getBean("all", Recorder.class);
+            final List<String> received = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                received.add(all.received.poll(5, TimeUnit.SECONDS));
+            }
+            assertThat(received).containsExactly("a", "b", "a");
+
+            final JmsTemplate jmsTemplate = this.broker.jmsTemplate();
+            final javax.jms.Message deadLetter = jmsTemplate.receive("typeB.dlq");
+            assertThat(EmbeddedBroker.text(deadLetter)).isEqualTo("b");
+            assertThat(deadLetter.getStringProperty(
+                RepublishMessageRecoverer.X_EXCEPTION_MESSAGE)).isEqualTo("rejected");
+            assertThat(context.getBean("typeB", Failing.class).attempts)
+                .hasValue(3);
+
+            // Neither redelivered to the route that handled it nor dead
+            // lettered twice
+            jmsTemplate.setReceiveTimeout(500);
+            assertThat(jmsTemplate.receive("typeB.dlq")).isNull();
+            assertThat(all.received.poll(500, TimeUnit.MILLISECONDS)).isNull();
+        }
+    }
+
+    @Test
+    void selectorOfRoutedBindingIsRejected() {
+        final String[] properties = Arrays.copyOf(RoutingTests.BINDINGS,
+            RoutingTests.BINDINGS.length + 2);
+        properties[RoutingTests.BINDINGS.length] =
+            "--spring.cloud.stream.jms.bindings.typeB-in-0.consumer.selector=type = 'b'";
+        // Fails the startup instead of retrying the binding in the background
+        properties[RoutingTests.BINDINGS.length + 1] =
+            "--spring.cloud.stream.binding-retry-interval=0";
+
+        assertThatThrownBy(() -> this.broker.run(Config.class, properties))
+            .hasStackTraceContaining(
+                "Routed consumers do not support selectors");
+    }
+
+    static class Recorder implements Consumer<Message<String>> {
+
+        private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+        @Override
+        public void accept(final Message<String> message) {
+            this.received.add(message.getPayload());
+        }
+
+    }
+
+    static class Failing implements Consumer<Message<String>> {
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        @Override
+        public void accept(final Message<String> message) {
+            this.attempts.incrementAndGet();
+            throw new IllegalStateException("rejected");
+        }
+
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    static class Config {
+
+        @Bean
+        public Recorder all() {
+            return new Recorder();
+        }
+
+        @Bean
+        public Failing typeB() {
+            return new Failing();
+        }
+
+    }
+
+}
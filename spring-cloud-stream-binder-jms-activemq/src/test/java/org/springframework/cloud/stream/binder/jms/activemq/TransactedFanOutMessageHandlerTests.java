@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.springframework.cloud.stream.binder.jms.activemq;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.jms.InvalidDestinationException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.stream.binder.jms.TransactedFanOutMessageHandler;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.destination.DynamicDestinationResolver;
+import org.springframework.messaging.MessageDeliveryException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Messages sent to several queues in one local transaction.
+ */
+class TransactedFanOutMessageHandlerTests {
+
+    private static final String[] QUEUES = { "billing", "shipping", "audit" };
+
+    private EmbeddedBroker broker;
+
+    private CachingConnectionFactory connectionFactory;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void start() throws Exception {
+        this.broker = new EmbeddedBroker();
+        this.connectionFactory = new CachingConnectionFactory(
+            this.broker.connectionFactory());
+        this.executor = Executors.newFixedThreadPool(QUEUES.length);
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        this.executor.shutdownNow();
+        this.connectionFactory.destroy();
+        this.broker.stop();
+    }
+
+    @Test
+    void messageIsCommittedOnEveryQueue() throws Exception {
+        final TransactedFanOutMessageHandler handler = new TransactedFanOutMessageHandler(
+            this.connectionFactory, QUEUES,
+            new JmsTemplate(this.connectionFactory), this.executor);
+
+        handler.handleMessage(MessageBuilder.withPayload("order-1").build());
+
+        final JmsTemplate jmsTemplate = this.broker.jmsTemplate();
+        for (final String queue : QUEUES) {
+            assertThat(EmbeddedBroker.text(jmsTemplate.receive(queue)))
+                .isEqualTo("order-1");
+        }
+    }
+
+    @Test
+    void priorityHeaderTakesPrecedenceOverTheTemplate() throws Exception {
+        final JmsTemplate template = new JmsTemplate(this.connectionFactory);
+        template.setExplicitQosEnabled(true);
+        template.setPriority(2);
+        final TransactedFanOutMessageHandler handler = new TransactedFanOutMessageHandler(
+            this.connectionFactory, QUEUES, template, this.executor);
+
+        handler.handleMessage(MessageBuilder.withPayload("order-3")
+            .setPriority(7).build());
+        handler.handleMessage(MessageBuilder.withPayload("order-4").build());
+
+        final JmsTemplate jmsTemplate = this.broker.jmsTemplate();
+        for (final String queue : QUEUES) {
+            assertThat(jmsTemplate.receive(queue).getJMSPriority()).isEqualTo(7);
+            assertThat(jmsTemplate.receive(queue).getJMSPriority()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void messageIsRolledBackOnEveryQueueWhenOneFails() throws Exception {
+        final JmsTemplate failingTemplate = new JmsTemplate(this.connectionFactory);
+        failingTemplate.setDestinationResolver(
+            (session, name, pubSub) -> {
+                if ("shipping".equals(name)) {
+                    throw new InvalidDestinationException("No " + name);
+                }
+                return new DynamicDestinationResolver()
+                    .resolveDestinationName(session, name, pubSub);
+            });
+        final TransactedFanOutMessageHandler handler = new TransactedFanOutMessageHandler(
+            this.connectionFactory, QUEUES, failingTemplate, this.executor);
+
+        assertThatThrownBy(() -> handler
+            .handleMessage(MessageBuilder.withPayload("order-2").build()))
+                .isInstanceOf(MessageDeliveryException.class)
+                .hasRootCauseInstanceOf(InvalidDestinationException.class);
+
+        final JmsTemplate jmsTemplate = this.broker.jmsTemplate();
+        jmsTemplate.setReceiveTimeout(500);
+        for (final String queue : QUEUES) {
+            assertThat(jmsTemplate.receive(queue)).isNull();
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+
+/**
+ * Messages sent through a producer binding and received by a consumer binding
+ * of the same application, over an in-VM ActiveMQ broker.
+ * <p>
+ * Every invocation sends a batch and waits until all of its messages were
+ * handled, so the score is the throughput for the given number of consumers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    @Configuration
+    @EnableAutoConfiguration
+    static class Application {
+
+        @Bean
+        public Consumer<Message<byte[]>> sink() {
+            return message -> {
+                final CountDownLatch latch = EndToEndBenchmark.RECEIVED.get();
+                if (latch != null) {
+                    latch.countDown();
+                }
+            };
+        }
+
+    }
+
+    private static final int BATCH = 100;
+
+    private static final AtomicReference<CountDownLatch> RECEIVED = new AtomicReference<>();
+
+    @Param({ "1", "4" })
+    private int consumers;
+
+    @Param({ "256" })
+    private int payloadSize;
+
+    private ConfigurableApplicationContext context;
+
+    private StreamBridge streamBridge;
+
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = new SpringApplicationBuilder(
+            EndToEndBenchmark.Application.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                    "--spring.activemq.broker-url=vm://bench?broker.persistent=false&broker.useJmx=false",
+                    "--spring.cloud.stream.bindings.sink-in-0.destination=bench",
+                    "--spring.cloud.stream.bindings.sink-in-0.group=bench",
+                    "--spring.cloud.stream.bindings.sink-in-0.consumer.concurrency="
+                            + this.consumers,
+                    "--spring.cloud.stream.bindings.bench-out-0.destination=bench",
+                    "--logging.level.root=WARN");
+        this.streamBridge = this.context.getBean(StreamBridge.class);
+        this.payload = new byte[this.payloadSize];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EndToEndBenchmark.BATCH)
+    public void produceAndConsume() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(EndToEndBenchmark.BATCH);
+        EndToEndBenchmark.RECEIVED.set(latch);
+        for (int i = 0; i < EndToEndBenchmark.BATCH; i++) {
+            this.streamBridge.send("bench-out-0", this.payload);
+        }
+        if (!latch.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException(
+                latch.getCount() + " messages were not received");
+        }
+    }
+
+}
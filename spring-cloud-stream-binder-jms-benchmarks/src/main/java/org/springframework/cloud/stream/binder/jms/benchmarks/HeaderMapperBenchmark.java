@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.JMSException;
+
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.stream.binder.jms.utils.SpecCompliantJmsHeaderMapper;
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * Header mapping done on every send and every receive.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeaderMapperBenchmark {
+
+    private final SpecCompliantJmsHeaderMapper mapper = new SpecCompliantJmsHeaderMapper();
+
+    private final ActiveMQTextMessage outbound = new ActiveMQTextMessage();
+
+    private final ActiveMQTextMessage inbound = new ActiveMQTextMessage();
+
+    private MessageHeaders plainHeaders;
+
+    private MessageHeaders dashedHeaders;
+
+    @Setup
+    public void setUp() throws JMSException {
+        final Map<String, Object> plain = new HashMap<>();
+        plain.put("contentType", "application/json");
+        plain.put("scst_partition", 3);
+        plain.put("traceId", "4bf92f3577b34da6");
+        this.plainHeaders = new MessageHeaders(plain);
+
+        final Map<String, Object> dashed = new HashMap<>(plain);
+        dashed.put("x-request-id", "c0a80101-5e4b");
+        dashed.put("x-retry-count", 2);
+        this.dashedHeaders = new MessageHeaders(dashed);
+
+        this.mapper.fromHeaders(this.dashedHeaders, this.inbound);
+    }
+
+    @Benchmark
+    public ActiveMQTextMessage fromHeadersDashed() {
+        // Properties already set are not overwritten by the mapper
+        this.outbound.clearProperties();
+        this.mapper.fromHeaders(this.dashedHeaders, this.outbound);
+        return this.outbound;
+    }
+
+    @Benchmark
+    public ActiveMQTextMessage fromHeadersPlain() {
+        this.outbound.clearProperties();
+        this.mapper.fromHeaders(this.plainHeaders, this.outbound);
+        return this.outbound;
+    }
+
+    @Benchmark
+    public Map<String, Object> toHeaders() {
+        return this.mapper.toHeaders(this.inbound);
+    }
+
+}
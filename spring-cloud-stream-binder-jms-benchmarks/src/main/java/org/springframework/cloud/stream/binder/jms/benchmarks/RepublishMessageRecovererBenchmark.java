@@ -0,0 +1,111 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.stream.binder.jms.utils.RepublishMessageRecoverer;
+import org.springframework.cloud.stream.binder.jms.utils.SpecCompliantJmsHeaderMapper;
+import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessageCreator;
+
+/**
+ * Dead letter path of a failed message: conversion, header mapping and
+ * rendering of the exception.
+ * <p>
+ * The message is created on a session of an in-VM broker but not sent, so
+ * the broker does not take part in the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepublishMessageRecovererBenchmark {
+
+    private CachingConnectionFactory connectionFactory;
+
+    private RepublishMessageRecoverer recoverer;
+
+    private ActiveMQTextMessage undeliveredMessage;
+
+    private Throwable cause;
+
+    private Message republished;
+
+    @Setup
+    public void setUp() throws JMSException {
+        this.connectionFactory = new CachingConnectionFactory(
+            new ActiveMQConnectionFactory(
+                "vm://recoverer?broker.persistent=false&broker.useJmx=false"));
+        final JmsTemplate jmsTemplate = new JmsTemplate(this.connectionFactory) {
+
+            @Override
+            protected void doSend(
+                final Session session,
+                final Destination destination,
+                final MessageCreator messageCreator) throws JMSException {
+                RepublishMessageRecovererBenchmark.this.republished = messageCreator
+                    .createMessage(session);
+            }
+        };
+        this.recoverer = new RepublishMessageRecoverer(jmsTemplate,
+            new SpecCompliantJmsHeaderMapper());
+
+        this.undeliveredMessage = new ActiveMQTextMessage();
+        this.undeliveredMessage.setText("{\"orderId\":42,\"status\":\"NEW\"}");
+        this.undeliveredMessage.setJMSDestination(
+            new ActiveMQQueue("Consumer.bench.VirtualTopic.orders"));
+        this.undeliveredMessage.setStringProperty("contentType",
+            "application/json");
+        this.cause = new RuntimeException("Listener failed",
+            new IllegalStateException("Order 42 cannot be processed"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public Message recover() {
+        this.recoverer.recover(this.undeliveredMessage, "bench.dlq", this.cause);
+        return this.republished;
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Topic;
+
+import org.apache.activemq.command.ActiveMQTopic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.stream.binder.jms.utils.TopicPartitionRegistrar;
+
+/**
+ * Partition lookup done for every message of a partitioned producer, with the
+ * partition header as an integer and as a string.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopicPartitionRegistrarBenchmark {
+
+    @Param({ "16" })
+    private int partitionCount;
+
+    private final TopicPartitionRegistrar registrar = new TopicPartitionRegistrar();
+
+    private Integer[] integerPartitions;
+
+    private String[] stringPartitions;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        this.integerPartitions = new Integer[this.partitionCount];
+        this.stringPartitions = new String[this.partitionCount];
+        for (int partition = 0; partition < this.partitionCount; partition++) {
+            this.registrar.addDestination(
+                partition,
+                new ActiveMQTopic("VirtualTopic.bench-" + partition));
+            this.integerPartitions[partition] = partition;
+            this.stringPartitions[partition] = String.valueOf(partition);
+        }
+    }
+
+    @Benchmark
+    public Topic getDestinationInteger() {
+        return this.registrar.getDestination(
+            this.integerPartitions[this.nextPartition()]);
+    }
+
+    @Benchmark
+    public Topic getDestinationString() {
+        return this.registrar.getDestination(
+            this.stringPartitions[this.nextPartition()]);
+    }
+
+    private int nextPartition() {
+        this.next = this.next + 1 == this.partitionCount ? 0 : this.next + 1;
+        return this.next;
+    }
+
+}
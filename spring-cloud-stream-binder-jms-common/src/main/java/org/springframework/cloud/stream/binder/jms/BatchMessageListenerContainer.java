@@ -0,0 +1,179 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ConsumerMessageListenerContainer} handing messages to its listener in
+ * batches.
+ * <p>
+ * After the first message arrived, a consumer keeps receiving until either
+ * <code>batchSize</code> messages were collected or <code>batchTimeout</code>
+ * milliseconds passed. The batch is then passed to the
+ * {@link BatchMessageListener} and committed, or acknowledged, as a whole;
+ * should the listener fail, the whole batch is rolled back or recovered.
+ * <p>
+ * Batches are collected on the consumer's cached session, so the container
+ * requires a cache level of at least {@link #CACHE_CONSUMER} and no external
+ * transaction manager.
+ */
+public class BatchMessageListenerContainer
+        extends ConsumerMessageListenerContainer {
+
+    /**
+     * Receives the messages of a batch along with the session they were
+     * received on.
+     */
+    @FunctionalInterface
+    public interface BatchMessageListener {
+
+        void onMessages(List<Message> messages, Session session)
+                throws JMSException;
+
+    }
+
+    private int batchSize = 10;
+
+    private long batchTimeout = 1000;
+
+    private BatchMessageListener batchMessageListener;
+
+    public BatchMessageListenerContainer() {
+        this.setCacheLevel(DefaultMessageListenerContainer.CACHE_CONSUMER);
+        this.setSessionTransacted(true);
+    }
+
+    public BatchMessageListener getBatchMessageListener() {
+        return this.batchMessageListener;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public long getBatchTimeout() {
+        return this.batchTimeout;
+    }
+
+    public void setBatchMessageListener(
+        final BatchMessageListener batchMessageListener) {
+        this.batchMessageListener = batchMessageListener;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        Assert.isTrue(batchSize > 0, "The batch size must be positive");
+        this.batchSize = batchSize;
+    }
+
+    public void setBatchTimeout(final long batchTimeout) {
+        Assert.isTrue(batchTimeout >= 0, "The batch timeout must not be negative");
+        this.batchTimeout = batchTimeout;
+    }
+
+    @Override
+    protected boolean doReceiveAndExecute(
+        final Object invoker,
+        final Session session,
+        final MessageConsumer consumer,
+        final TransactionStatus status) throws JMSException {
+        Assert.state(session != null && consumer != null,
+            "Batch consumption requires a cached session and consumer");
+
+        final List<Message> messages = this.receiveBatch(consumer);
+        if (messages.isEmpty()) {
+            this.noMessageReceived(invoker, session);
+            if (this.shouldCommitAfterNoMessageReceived(session)) {
+                this.commitIfNecessary(session, null);
+            }
+            return false;
+        }
+
+        this.messageReceived(invoker, session);
+        if (!this.isAcceptMessagesWhileStopping() && !this.isRunning()) {
+            this.logger.debug("Rejecting batch because of the listener container "
+                    + "having been stopped in the meantime");
+            this.rollbackIfNecessary(session);
+            return true;
+        }
+
+        try {
+            this.batchMessageListener.onMessages(messages, session);
+        }
+        catch (final Throwable ex) {
+            this.rollbackOnExceptionIfNecessary(session, ex);
+            this.handleListenerException(ex);
+            if (ex instanceof JMSException) {
+                throw (JMSException) ex;
+            }
+            return true;
+        }
+        final int last = messages.size() - 1;
+        if (this.isIndividualAcknowledge(session)) {
+            for (int i = 0; i < last; i++) {
+                messages.get(i).acknowledge();
+            }
+        }
+        this.commitIfNecessary(session, messages.get(last));
+        return true;
+    }
+
+    @Override
+    protected void validateConfiguration() {
+        super.validateConfiguration();
+        Assert.state(this.batchMessageListener != null,
+            "A BatchMessageListener is required");
+        Assert.state(
+            this.getCacheLevel() >= DefaultMessageListenerContainer.CACHE_CONSUMER,
+            "Batch consumption requires cache level CACHE_CONSUMER or higher");
+    }
+
+    private List<Message> receiveBatch(final MessageConsumer consumer)
+            throws JMSException {
+        final Message first = this.receiveMessage(consumer);
+        if (first == null) {
+            return Collections.emptyList();
+        }
+        final List<Message> messages = new ArrayList<>(this.batchSize);
+        messages.add(first);
+        final long deadline = System.currentTimeMillis() + this.batchTimeout;
+        while (messages.size() < this.batchSize) {
+            final long remaining = deadline - System.currentTimeMillis();
+            // Past the deadline only what is already buffered is drained
+            final Message next = remaining > 0
+                    ? consumer.receive(remaining)
+                    : consumer.receiveNoWait();
+            if (next == null) {
+                break;
+            }
+            messages.add(next);
+        }
+        return messages;
+    }
+
+}
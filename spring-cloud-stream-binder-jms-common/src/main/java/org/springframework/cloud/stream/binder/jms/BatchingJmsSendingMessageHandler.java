@@ -0,0 +1,303 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import org.springframework.context.Lifecycle;
+import org.springframework.integration.StaticMessageHeaderAccessor;
+import org.springframework.integration.handler.AbstractMessageHandler;
+import org.springframework.integration.jms.DefaultJmsHeaderMapper;
+import org.springframework.integration.jms.JmsHeaderMapper;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.util.Assert;
+
+/**
+ * Sends messages in groups, each group within one transacted session commit.
+ * <p>
+ * Messages are buffered until either <code>batchSize</code> messages are
+ * waiting or the oldest one waited <code>batchTimeout</code> milliseconds.
+ * Batches are sent one at a time, in the order their messages were handled. As
+ * the send happens after {@link #handleMessage(Message)} returned, a failed
+ * batch is reported on the error channel with one error message per message
+ * of the batch.
+ */
+public class BatchingJmsSendingMessageHandler extends AbstractMessageHandler
+        implements Lifecycle {
+
+    private final JmsTemplate jmsTemplate;
+
+    private final String destinationName;
+
+    private final int batchSize;
+
+    private final long batchTimeout;
+
+    private final Object monitor = new Object();
+
+    /**
+     * Held from draining a batch until it is committed, taken before
+     * {@link #monitor}.
+     */
+    private final Object sendMonitor = new Object();
+
+    private JmsHeaderMapper headerMapper = new DefaultJmsHeaderMapper();
+
+    private MessageChannel errorChannel;
+
+    private List<Message<?>> buffer;
+
+    private long bufferStart;
+
+    private volatile boolean running;
+
+    public BatchingJmsSendingMessageHandler(final JmsTemplate jmsTemplate,
+            final String destinationName, final int batchSize,
+            final long batchTimeout) {
+        Assert.notNull(jmsTemplate, "The JmsTemplate must not be null");
+        Assert.hasText(destinationName, "The destination name must be set");
+        Assert.isTrue(batchSize > 0, "The batch size must be positive");
+        Assert.isTrue(batchTimeout > 0, "The batch timeout must be positive");
+        this.jmsTemplate = jmsTemplate;
+        this.jmsTemplate.setSessionTransacted(true);
+        this.destinationName = destinationName;
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
+        this.buffer = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Send whatever is buffered right away.
+     */
+    public void flush() {
+        this.flush(() -> !this.buffer.isEmpty());
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public long getBatchTimeout() {
+        return this.batchTimeout;
+    }
+
+    @Override
+    public String getComponentType() {
+        return "jms:batching-outbound-channel-adapter";
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    public void setErrorChannel(final MessageChannel errorChannel) {
+        this.errorChannel = errorChannel;
+    }
+
+    public void setHeaderMapper(final JmsHeaderMapper headerMapper) {
+        Assert.notNull(headerMapper, "'headerMapper' cannot be null");
+        this.headerMapper = headerMapper;
+    }
+
+    @Override
+    public void start() {
+        synchronized (this.monitor) {
+            if (!this.running) {
+                this.running = true;
+                if (!this.buffer.isEmpty()) {
+                    this.scheduleFlush();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this.monitor) {
+            this.running = false;
+        }
+        this.flush();
+    }
+
+    @Override
+    protected void handleMessageInternal(final Message<?> message) {
+        synchronized (this.monitor) {
+            if (this.buffer.isEmpty()) {
+                this.bufferStart = System.currentTimeMillis();
+                this.scheduleFlush();
+            }
+            this.buffer.add(message);
+            if (this.buffer.size() < this.batchSize) {
+                return;
+            }
+        }
+        this.flush(() -> this.buffer.size() >= this.batchSize);
+    }
+
+    /**
+     * Send the messages within one transacted session commit.
+     *
+     * @throws org.springframework.jms.JmsException when the batch was not sent
+     */
+    protected void sendBatch(final List<Message<?>> batch) {
+        this.jmsTemplate.execute(session -> {
+            final Destination destination = this.jmsTemplate
+                .getDestinationResolver()
+                .resolveDestinationName(
+                    session,
+                    this.destinationName,
+                    this.jmsTemplate.isPubSubDomain());
+            final MessageProducer producer = session
+                .createProducer(destination);
+            try {
+                for (final Message<?> message : batch) {
+                    this.send(session, producer, message);
+                }
+                JmsUtils.commitIfNecessary(session);
+            }
+            catch (final JMSException | RuntimeException e) {
+                JmsUtils.rollbackIfNecessary(session);
+                throw e;
+            }
+            finally {
+                JmsUtils.closeMessageProducer(producer);
+            }
+            return null;
+        }, true);
+    }
+
+    /**
+     * Report a batch that could not be sent on the error channel, or log it
+     * when there is none.
+     */
+    protected void handleFailure(
+        final List<Message<?>> batch,
+        final Exception cause) {
+        if (this.errorChannel == null) {
+            this.logger.error(
+                "Failed to send a batch of " + batch.size() + " messages to "
+                        + this.destinationName,
+                cause);
+            return;
+        }
+        for (final Message<?> message : batch) {
+            this.errorChannel.send(new ErrorMessage(
+                new MessageDeliveryException(message,
+                    "Failed to send batch to " + this.destinationName,
+                    cause)));
+        }
+    }
+
+    /**
+     * Send batches while <code>due</code>, evaluated holding the monitor.
+     */
+    private void flush(final BooleanSupplier due) {
+        synchronized (this.sendMonitor) {
+            while (true) {
+                final List<Message<?>> batch;
+                synchronized (this.monitor) {
+                    if (!due.getAsBoolean()) {
+                        return;
+                    }
+                    batch = this.drain();
+                }
+                this.send(batch);
+            }
+        }
+    }
+
+    /**
+     * Must be called holding the monitor. Takes at most <code>batchSize</code>
+     * messages, those arriving while a batch is sent wait for the next one;
+     * the flush scheduled for the oldest message still bounds their wait.
+     */
+    private List<Message<?>> drain() {
+        if (this.buffer.size() <= this.batchSize) {
+            final List<Message<?>> batch = this.buffer;
+            this.buffer = new ArrayList<>(this.batchSize);
+            return batch;
+        }
+        final List<Message<?>> head = this.buffer.subList(0, this.batchSize);
+        final List<Message<?>> batch = new ArrayList<>(head);
+        head.clear();
+        return batch;
+    }
+
+    /**
+     * Must be called holding the monitor, when a new batch starts filling.
+     */
+    private void scheduleFlush() {
+        if (this.running) {
+            this.getTaskScheduler().schedule(this::flushIfExpired,
+                new Date(this.bufferStart + this.batchTimeout));
+        }
+    }
+
+    private void flushIfExpired() {
+        this.flush(() -> !this.buffer.isEmpty() && System.currentTimeMillis()
+                - this.bufferStart >= this.batchTimeout);
+    }
+
+    private void send(final List<Message<?>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            this.sendBatch(batch);
+        }
+        catch (final Exception e) {
+            this.handleFailure(batch, e);
+        }
+    }
+
+    private void send(
+        final Session session,
+        final MessageProducer producer,
+        final Message<?> message) throws JMSException {
+        final javax.jms.Message jmsMessage = this.jmsTemplate
+            .getMessageConverter().toMessage(message.getPayload(), session);
+        this.headerMapper.fromHeaders(message.getHeaders(), jmsMessage);
+        if (this.jmsTemplate.isExplicitQosEnabled()) {
+            // The priority header takes precedence, as with JmsSendingMessageHandler
+            final Integer priority = StaticMessageHeaderAccessor
+                .getPriority(message);
+            producer.send(
+                jmsMessage,
+                this.jmsTemplate.getDeliveryMode(),
+                priority != null ? priority : this.jmsTemplate.getPriority(),
+                this.jmsTemplate.getTimeToLive());
+        }
+        else {
+            producer.send(jmsMessage);
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.springframework.cloud.stream.binder.jms;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.Session;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.jms.connection.SingleConnectionFactory;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+/**
+ * {@link DefaultMessageListenerContainer} of consumer bindings, adding the
+ * acknowledge modes of ActiveMQ to the ones of the JMS specification.
+ * <p>
+ * Messages consumed with {@link #INDIVIDUAL_ACKNOWLEDGE} are acknowledged
+ * one by one after their listener succeeded, the way
+ * {@link Session#CLIENT_ACKNOWLEDGE} acknowledges everything consumed so far.
+ * With <code>optimizeAcknowledge</code>, the connections of the container
+ * acknowledge in batches, provided their connection supports it. As this is
+ * a setting of the connection, the container then opens its own connections
+ * instead of sharing the one of a {@link SingleConnectionFactory}.
+ */
+public class ConsumerMessageListenerContainer
+        extends DefaultMessageListenerContainer {
+
+    /**
+     * ActiveMQ's acknowledge mode for acknowledging single messages.
+     */
+    public static final int INDIVIDUAL_ACKNOWLEDGE = 4;
+
+    private boolean optimizeAcknowledge;
+
+    public boolean isOptimizeAcknowledge() {
+        return this.optimizeAcknowledge;
+    }
+
+    /**
+     * Whether the connections of the container acknowledge messages consumed
+     * in {@link Session#AUTO_ACKNOWLEDGE} mode in batches. Only takes effect on
+     * connections with an <code>optimizeAcknowledge</code> property, such as
+     * ActiveMQ's.
+     */
+    public void setOptimizeAcknowledge(final boolean optimizeAcknowledge) {
+        this.optimizeAcknowledge = optimizeAcknowledge;
+    }
+
+    @Override
+    protected Connection createConnection() throws JMSException {
+        if (!this.optimizeAcknowledge) {
+            return super.createConnection();
+        }
+
+        final ConnectionFactory connectionFactory = this.getConnectionFactory();
+        final ConnectionFactory targetConnectionFactory = connectionFactory instanceof SingleConnectionFactory
+                ? ((SingleConnectionFactory) connectionFactory)
+                    .getTargetConnectionFactory()
+                : null;
+        final Connection connection = targetConnectionFactory != null
+                ? targetConnectionFactory.createConnection()
+                : super.createConnection();
+        final BeanWrapper wrapper = PropertyAccessorFactory
+            .forBeanPropertyAccess(connection);
+        if (wrapper.isWritableProperty("optimizeAcknowledge")) {
+            wrapper.setPropertyValue("optimizeAcknowledge", true);
+        }
+        else {
+            this.logger.warn("Connection " + connection
+                    + " does not support optimized acknowledgement");
+        }
+        return connection;
+    }
+
+    @Override
+    protected boolean isClientAcknowledge(final Session session)
+            throws JMSException {
+        return super.isClientAcknowledge(session)
+                || this.isIndividualAcknowledge(session);
+    }
+
+    protected boolean isIndividualAcknowledge(final Session session)
+            throws JMSException {
+        return !session.getTransacted() && session
+            .getAcknowledgeMode() == ConsumerMessageListenerContainer.INDIVIDUAL_ACKNOWLEDGE;
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cloud.stream.binder.BinderException;
+import org.springframework.cloud.stream.binder.jms.utils.ParallelBindingStarter;
+import org.springframework.context.Lifecycle;
+import org.springframework.integration.core.MessageProducer;
+import org.springframework.integration.endpoint.MessageProducerSupport;
+
+/**
+ * Consumer endpoint created and started on a {@link ParallelBindingStarter}.
+ * <p>
+ * The actual endpoint is only built once the binding's destination has been
+ * provisioned, so {@link #start()} returns right away. Stopping before the
+ * endpoint is ready leaves it stopped once it is.
+ */
+public class DeferredStartMessageProducer extends MessageProducerSupport {
+
+    private final ParallelBindingStarter starter;
+
+    private final String bindingName;
+
+    private final Supplier<MessageProducer> endpointFactory;
+
+    private final Object monitor = new Object();
+
+    private CompletableFuture<MessageProducer> startup;
+
+    private MessageProducer delegate;
+
+    private boolean shouldRun;
+
+    public DeferredStartMessageProducer(final ParallelBindingStarter starter,
+            final String bindingName,
+            final Supplier<MessageProducer> endpointFactory) {
+        this.starter = starter;
+        this.bindingName = bindingName;
+        this.endpointFactory = endpointFactory;
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        synchronized (this.monitor) {
+            if (this.delegate instanceof DisposableBean) {
+                try {
+                    ((DisposableBean) this.delegate).destroy();
+                }
+                catch (final Exception e) {
+                    this.logger.error("Could not destroy endpoint of binding ["
+                            + this.bindingName + "]", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getComponentType() {
+        return "jms:deferred-message-driven-channel-adapter";
+    }
+
+    /**
+     * @return the actual endpoint, or <code>null</code> while it is not
+     * created yet.
+     */
+    public MessageProducer getDelegate() {
+        synchronized (this.monitor) {
+            return this.delegate;
+        }
+    }
+
+    @Override
+    protected void doStart() {
+        synchronized (this.monitor) {
+            this.shouldRun = true;
+            if (this.delegate == null && (this.startup == null
+                    || this.startup.isCompletedExceptionally())) {
+                this.starter.register(this);
+                this.startup = this.starter.submit(
+                    this.bindingName,
+                    "startup",
+                    this::createDelegate);
+            }
+            else {
+                this.applyState();
+            }
+        }
+    }
+
+    @Override
+    protected void doStop() {
+        synchronized (this.monitor) {
+            this.shouldRun = false;
+            this.applyState();
+        }
+    }
+
+    /**
+     * Must be called holding the monitor.
+     */
+    private void applyState() {
+        if (!(this.delegate instanceof Lifecycle)) {
+            return;
+        }
+        final Lifecycle lifecycle = (Lifecycle) this.delegate;
+        if (this.shouldRun && !lifecycle.isRunning()) {
+            lifecycle.start();
+        }
+        else if (!this.shouldRun && lifecycle.isRunning()) {
+            lifecycle.stop();
+        }
+    }
+
+    private MessageProducer createDelegate() {
+        final MessageProducer endpoint = this.endpointFactory.get();
+        endpoint.setOutputChannel(this.getOutputChannel());
+        if (endpoint instanceof InitializingBean) {
+            try {
+                ((InitializingBean) endpoint).afterPropertiesSet();
+            }
+            catch (final Exception e) {
+                throw new BinderException(
+                    "Could not initialize endpoint of binding ["
+                            + this.bindingName + "]",
+                    e);
+            }
+        }
+        synchronized (this.monitor) {
+            this.delegate = endpoint;
+            this.applyState();
+        }
+        return endpoint;
+    }
+
+}
@@ -16,62 +16,289 @@
 
 package org.springframework.cloud.stream.binder.jms;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
+import java.util.function.IntSupplier;
 
 import javax.jms.ConnectionFactory;
 import javax.jms.IllegalStateException;
+import javax.jms.Topic;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cloud.stream.binder.AbstractMessageChannelBinder;
+import org.springframework.cloud.stream.binder.BinderHeaders;
 import org.springframework.cloud.stream.binder.BinderSpecificPropertiesProvider;
 import org.springframework.cloud.stream.binder.ExtendedBindingProperties;
 import org.springframework.cloud.stream.binder.ExtendedConsumerProperties;
 import org.springframework.cloud.stream.binder.ExtendedProducerProperties;
 import org.springframework.cloud.stream.binder.ExtendedPropertiesBinder;
+import org.springframework.cloud.stream.binder.jms.claimcheck.ClaimCheckMessageConverter;
+import org.springframework.cloud.stream.binder.jms.claimcheck.ClaimCheckMessageHandler;
+import org.springframework.cloud.stream.binder.jms.claimcheck.FileSystemPayloadStore;
+import org.springframework.cloud.stream.binder.jms.claimcheck.PayloadStore;
+import org.springframework.cloud.stream.binder.jms.compression.CompressingMessageHandler;
+import org.springframework.cloud.stream.binder.jms.compression.CompressionCodec;
+import org.springframework.cloud.stream.binder.jms.compression.DecompressingMessageConverter;
+import org.springframework.cloud.stream.binder.jms.compression.DeflateCompressionCodec;
+import org.springframework.cloud.stream.binder.jms.config.JmsBinderConfigurationProperties;
 import org.springframework.cloud.stream.binder.jms.config.JmsConsumerProperties;
 import org.springframework.cloud.stream.binder.jms.config.JmsExtendedBindingProperties;
 import org.springframework.cloud.stream.binder.jms.config.JmsProducerProperties;
+import org.springframework.cloud.stream.binder.jms.config.JmsProducerProperties.FanOutMode;
+import org.springframework.cloud.stream.binder.jms.metrics.BindingMetrics;
+import org.springframework.cloud.stream.binder.jms.metrics.BindingMetrics.ConsumerMeters;
+import org.springframework.cloud.stream.binder.jms.metrics.MeteredBatchMessageListener;
+import org.springframework.cloud.stream.binder.jms.metrics.MeteredMessageHandler;
+import org.springframework.cloud.stream.binder.jms.metrics.MeteredMessageListener;
+import org.springframework.cloud.stream.binder.jms.provisioning.DeferredConsumerDestination;
+import org.springframework.cloud.stream.binder.jms.provisioning.JmsConsumerDestination;
 import org.springframework.cloud.stream.binder.jms.provisioning.JmsProducerDestination;
+import org.springframework.cloud.stream.binder.jms.requestreply.ReplyCorrelator;
+import org.springframework.cloud.stream.binder.jms.requestreply.RequestReplyMessageHandler;
+import org.springframework.cloud.stream.binder.jms.utils.AnonymousNamingStrategy;
+import org.springframework.cloud.stream.binder.jms.utils.Base64UrlNamingStrategy;
+import org.springframework.cloud.stream.binder.jms.utils.DeadLetterPublisher;
+import org.springframework.cloud.stream.binder.jms.utils.GroupingMessageHandler;
+import org.springframework.cloud.stream.binder.jms.utils.ParallelBindingStarter;
+import org.springframework.cloud.stream.binder.jms.utils.RepublishMessageRecoverer;
+import org.springframework.cloud.stream.binder.jms.utils.SpecCompliantJmsHeaderMapper;
+import org.springframework.cloud.stream.binder.jms.utils.TopicPartitionRegistrar;
+import org.springframework.cloud.stream.binder.jms.utils.VirtualThreads;
 import org.springframework.cloud.stream.provisioning.ConsumerDestination;
 import org.springframework.cloud.stream.provisioning.ProducerDestination;
 import org.springframework.cloud.stream.provisioning.ProvisioningProvider;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.Lifecycle;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.integration.core.MessageProducer;
+import org.springframework.integration.jms.DynamicJmsTemplate;
+import org.springframework.integration.jms.JmsHeaderMapper;
 import org.springframework.integration.jms.JmsSendingMessageHandler;
 import org.springframework.integration.jms.dsl.Jms;
 import org.springframework.jms.core.JmsTemplate;
-import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.jms.support.converter.SimpleMessageConverter;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.MessagingException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.util.Assert;
 
 public class JMSMessageChannelBinder extends
         AbstractMessageChannelBinder<ExtendedConsumerProperties<JmsConsumerProperties>, ExtendedProducerProperties<JmsProducerProperties>, ProvisioningProvider<ExtendedConsumerProperties<JmsConsumerProperties>, ExtendedProducerProperties<JmsProducerProperties>>>
         implements
-        ExtendedPropertiesBinder<MessageChannel, JmsConsumerProperties, JmsProducerProperties> {
+        ExtendedPropertiesBinder<MessageChannel, JmsConsumerProperties, JmsProducerProperties>,
+        DisposableBean {
 
-    class MessageHandlerChain implements MessageHandler {
+    abstract static class CompositeMessageHandler
+            implements MessageHandler, Lifecycle {
 
-        private final List<JmsSendingMessageHandler> handlers;
+        protected final List<MessageHandler> handlers;
 
-        public MessageHandlerChain(
-                final List<JmsSendingMessageHandler> handlers) {
+        CompositeMessageHandler(final List<MessageHandler> handlers) {
             this.handlers = handlers;
         }
 
+        @Override
+        public boolean isRunning() {
+            return this.handlers != null && this.handlers.stream()
+                .filter(Lifecycle.class::isInstance)
+                .allMatch(h -> ((Lifecycle) h).isRunning());
+        }
+
+        @Override
+        public void start() {
+            if (this.handlers != null) {
+                this.handlers.stream().filter(Lifecycle.class::isInstance)
+                    .forEach(h -> ((Lifecycle) h).start());
+            }
+        }
+
+        @Override
+        public void stop() {
+            if (this.handlers != null) {
+                this.handlers.stream().filter(Lifecycle.class::isInstance)
+                    .forEach(h -> ((Lifecycle) h).stop());
+            }
+        }
+
+    }
+
+    class MessageHandlerChain extends CompositeMessageHandler {
+
+        private final Executor executor;
+
+        public MessageHandlerChain(final List<MessageHandler> handlers) {
+            this(handlers, null);
+        }
+
+        /**
+         * @param executor when set, the handlers are invoked in parallel on it
+         * and the chain returns once all of them completed.
+         */
+        public MessageHandlerChain(final List<MessageHandler> handlers,
+                final Executor executor) {
+            super(handlers);
+            this.executor = executor;
+        }
+
         @Override
         public void handleMessage(final Message<?> message)
                 throws MessagingException {
-            if (this.handlers != null) {
+            if (this.handlers == null) {
+                return;
+            }
+            if (this.executor == null) {
                 this.handlers.forEach(h -> h.handleMessage(message));
+                return;
+            }
+
+            final CompletableFuture<?>[] sends = new CompletableFuture<?>[this.handlers
+                .size()];
+            for (int i = 0; i < sends.length; i++) {
+                final MessageHandler handler = this.handlers.get(i);
+                sends[i] = CompletableFuture.runAsync(
+                    () -> handler.handleMessage(message),
+                    this.executor);
+            }
+            MessagingException failure = null;
+            for (final CompletableFuture<?> send : sends) {
+                try {
+                    send.join();
+                }
+                catch (final CompletionException e) {
+                    if (failure == null) {
+                        failure = new MessageDeliveryException(message,
+                            "Fan-out send failed for at least one queue",
+                            e.getCause());
+                    }
+                    else {
+                        failure.addSuppressed(e.getCause());
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+    }
+
+    /**
+     * Sends each message with the handler of the partition found in its
+     * {@link BinderHeaders#PARTITION_HEADER} header.
+     */
+    class PartitionRoutingMessageHandler extends CompositeMessageHandler {
+
+        public PartitionRoutingMessageHandler(
+                final List<MessageHandler> handlers) {
+            super(handlers);
+        }
+
+        @Override
+        public void handleMessage(final Message<?> message)
+                throws MessagingException {
+            final Object partition = message.getHeaders()
+                .get(BinderHeaders.PARTITION_HEADER);
+            if (partition == null) {
+                throw new MessageDeliveryException(message,
+                    "The partitioned producer requires the '"
+                            + BinderHeaders.PARTITION_HEADER + "' header");
+            }
+            final int index = TopicPartitionRegistrar.parsePartition(partition);
+            final MessageHandler handler = index >= 0
+                    && index < this.handlers.size() ? this.handlers.get(index)
+                            : null;
+            if (handler == null) {
+                throw new MessageDeliveryException(message,
+                    "No destination provisioned for partition " + partition);
             }
+            handler.handleMessage(message);
         }
 
     }
 
+    private static final int DEFAULT_SCALING_MAX_MESSAGES_PER_TASK = 10;
+
+    // Compiles expressions evaluated often enough, such as those of every message
+    private static final ExpressionParser EXPRESSION_PARSER = new SpelExpressionParser(
+        new SpelParserConfiguration(SpelCompilerMode.MIXED,
+            JMSMessageChannelBinder.class.getClassLoader()));
+
     private final ConnectionFactory connectionFactory;
 
+    private ConnectionFactory producerConnectionFactory;
+
+    private final JmsHeaderMapper headerMapper = new SpecCompliantJmsHeaderMapper();
+
+    private final Map<String, CompressionCodec> compressionCodecs = new ConcurrentHashMap<>();
+
+    // Plain messages are converted as usual, so it serves every consumer
+    private final MessageConverter messageConverter = new DecompressingMessageConverter(
+        new ClaimCheckMessageConverter(new SimpleMessageConverter(),
+            this::getPayloadStore),
+        this.compressionCodecs);
+
+    private PayloadStore payloadStore;
+
+    /**
+     * The payload store created by the binder, as opposed to a bean of the
+     * application.
+     */
+    private FileSystemPayloadStore ownPayloadStore;
+
+    private AnonymousNamingStrategy replyQueueNamingStrategy = new Base64UrlNamingStrategy(
+        "spring.reply-");
+
+    private ReplyCorrelator replyCorrelator;
+
+    private final Map<String, RoutingMessageListener> routingListeners = new HashMap<>();
+
+    private final Map<String, Expression> routes = new ConcurrentHashMap<>();
+
+    private boolean routingStartable;
+
+    private JmsBinderConfigurationProperties configurationProperties = new JmsBinderConfigurationProperties();
+
+    private ThreadPoolTaskExecutor fanOutExecutor;
+
+    private DeadLetterPublisher deadLetterPublisher;
+
+    private ParallelBindingStarter parallelBindingStarter;
+
+    private BindingMetrics bindingMetrics;
+
+    /**
+     * Destinations of the bindings holding a reference to their consumer
+     * meters, the provisioner creating one per binding.
+     */
+    private final Set<ConsumerDestination> meteredConsumers = Collections
+        .synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
     private ExtendedBindingProperties<JmsConsumerProperties, JmsProducerProperties> extendedBindingProperties = new JmsExtendedBindingProperties();
 
     public JMSMessageChannelBinder(
@@ -80,6 +307,9 @@ public class JMSMessageChannelBinder extends
             final ConnectionFactory connectionFactory) {
         super(null, provisioningProvider);
         this.connectionFactory = connectionFactory;
+        this.producerConnectionFactory = connectionFactory;
+        this.setCompressionCodecs(
+            Collections.singletonList(new DeflateCompressionCodec()));
     }
 
     @Override
@@ -89,11 +319,282 @@ public class JMSMessageChannelBinder extends
         final ExtendedConsumerProperties<JmsConsumerProperties> properties)
             throws Exception {
 
-        final DefaultMessageListenerContainer listenerContainer = Jms
-            .container(this.connectionFactory, consumerDestination.getName())
-            .get();
+        if (consumerDestination instanceof DeferredConsumerDestination) {
+            Assert.state(this.parallelBindingStarter != null,
+                "Deferred destinations require a ParallelBindingStarter");
+            final DeferredConsumerDestination deferredDestination = (DeferredConsumerDestination) consumerDestination;
+            return new DeferredStartMessageProducer(
+                this.parallelBindingStarter,
+                deferredDestination.getBindingName(),
+                () -> this.createListenerEndpoint(deferredDestination,
+                    deferredDestination.getDestination(),
+                    group,
+                    properties));
+        }
+        return this.createListenerEndpoint(consumerDestination,
+            consumerDestination, group, properties);
+    }
+
+    /**
+     * @param bindingDestination the destination the binding was created with,
+     * as passed when it is unbound
+     */
+    private MessageProducer createListenerEndpoint(
+        final ConsumerDestination bindingDestination,
+        final ConsumerDestination consumerDestination,
+        final String group,
+        final ExtendedConsumerProperties<JmsConsumerProperties> properties) {
+
+        final JmsConsumerProperties extension = properties.getExtension();
+
+        if (extension.getRoute() != null) {
+            return this.createRoutedEndpoint(consumerDestination, group,
+                properties);
+        }
+
+        if (extension.isReactive()) {
+            Assert.isTrue(!properties.isBatchMode(),
+                "Reactive consumers do not support batch mode");
+            final ReactiveJmsMessageDrivenEndpoint endpoint = new ReactiveJmsMessageDrivenEndpoint(
+                this.connectionFactory,
+                JMSMessageChannelBinder.getAddress(consumerDestination));
+            endpoint.setConcurrency(Math.max(1, properties.getConcurrency()));
+            endpoint.setReceiveTimeout(extension.getReceiveTimeout());
+            endpoint.setRecoveryInterval(properties.getBackOffInitialInterval());
+            endpoint.setMessageSelector(extension.getSelector());
+            endpoint.setHeaderMapper(this.headerMapper);
+            endpoint.setMessageConverter(this.messageConverter);
+            if (this.bindingMetrics != null) {
+                endpoint.setMessageListener(new MeteredMessageListener(
+                    endpoint.getMessageListener(),
+                    this.acquireConsumerMeters(bindingDestination,
+                        consumerDestination, group,
+                        endpoint::getActiveSubscriptionCount)));
+            }
+            if (this.isRetryOrDeadLetter(properties)) {
+                endpoint.setMessageListener(new RetryingMessageListener(
+                    endpoint.getMessageListener(),
+                    this.buildRetryTemplate(properties),
+                    this.getDeadLetterPublisher(extension),
+                    extension.getDlqName()));
+            }
+            return endpoint;
+        }
+
+        if (properties.isBatchMode()) {
+            final BatchMessageListenerContainer listenerContainer = new BatchMessageListenerContainer();
+            this.configureListenerContainer(listenerContainer,
+                consumerDestination, properties);
+            listenerContainer.setBatchSize(extension.getBatchSize());
+            listenerContainer.setBatchTimeout(extension.getBatchTimeout());
+            final JmsBatchMessageDrivenEndpoint endpoint = new JmsBatchMessageDrivenEndpoint(
+                listenerContainer);
+            endpoint.setHeaderMapper(this.headerMapper);
+            endpoint.setMessageConverter(this.messageConverter);
+            if (this.bindingMetrics != null) {
+                listenerContainer.setBatchMessageListener(
+                    new MeteredBatchMessageListener(
+                        listenerContainer.getBatchMessageListener(),
+                        this.acquireConsumerMeters(bindingDestination,
+                            consumerDestination, group,
+                            listenerContainer::getActiveConsumerCount)));
+            }
+            if (this.isRetryOrDeadLetter(properties)) {
+                listenerContainer.setBatchMessageListener(
+                    new RetryingBatchMessageListener(
+                        listenerContainer.getBatchMessageListener(),
+                        this.buildRetryTemplate(properties),
+                        this.getDeadLetterPublisher(extension),
+                        extension.getDlqName()));
+            }
+            return endpoint;
+        }
+
+        final ConsumerMessageListenerContainer listenerContainer = new ConsumerMessageListenerContainer();
+        this.configureListenerContainer(listenerContainer, consumerDestination,
+            properties);
+
+        final MessageProducer endpoint = Jms
+            .messageDrivenChannelAdapter(listenerContainer)
+            .headerMapper(this.headerMapper)
+            .jmsMessageConverter(this.messageConverter).get();
+        if (this.bindingMetrics != null) {
+            // The endpoint registered its listener with the container when created
+            listenerContainer.setMessageListener(
+                new MeteredMessageListener(
+                    listenerContainer.getMessageListener(),
+                    this.acquireConsumerMeters(bindingDestination,
+                        consumerDestination, group,
+                        listenerContainer::getActiveConsumerCount)));
+        }
+        if (this.isRetryOrDeadLetter(properties)) {
+            listenerContainer.setMessageListener(
+                new RetryingMessageListener(
+                    listenerContainer.getMessageListener(),
+                    this.buildRetryTemplate(properties),
+                    this.getDeadLetterPublisher(extension),
+                    extension.getDlqName()));
+        }
+        return endpoint;
+    }
+
+    /**
+     * The bindings of the same destination and group share the container of
+     * the first one, configured with its properties. Retries and dead
+     * lettering remain per binding.
+     */
+    private synchronized MessageProducer createRoutedEndpoint(
+        final ConsumerDestination consumerDestination,
+        final String group,
+        final ExtendedConsumerProperties<JmsConsumerProperties> properties) {
+
+        final JmsConsumerProperties extension = properties.getExtension();
+        Assert.isTrue(!properties.isBatchMode() && !extension.isReactive(),
+            "Routed consumers support neither batch mode nor reactive consumption");
+        // The shared container would apply the selector of the first binding to all
+        Assert.isNull(extension.getSelector(),
+            "Routed consumers do not support selectors, filter with the route instead");
+
+        final String address = JMSMessageChannelBinder
+            .getAddress(consumerDestination);
+        RoutingMessageListener routingListener = this.routingListeners
+            .get(address);
+        if (routingListener == null) {
+            final ConsumerMessageListenerContainer listenerContainer = new ConsumerMessageListenerContainer();
+            this.configureListenerContainer(listenerContainer,
+                consumerDestination, properties);
+            routingListener = new RoutingMessageListener(listenerContainer,
+                this.headerMapper, this.messageConverter,
+                this.getEvaluationContext());
+            if (this.bindingMetrics != null) {
+                listenerContainer.setMessageListener(
+                    new MeteredMessageListener(
+                        listenerContainer.getMessageListener(),
+                        this.getConsumerMeters(consumerDestination, group,
+                            listenerContainer::getActiveConsumerCount)));
+            }
+            routingListener.setStartable(this.routingStartable);
+            this.routingListeners.put(address, routingListener);
+        }
+        // Retried per binding, a failure must not hand the message again to the others
+        final boolean retryOrDeadLetter = this.isRetryOrDeadLetter(properties);
+        return routingListener.addRoute(
+            this.routes.computeIfAbsent(extension.getRoute(),
+                JMSMessageChannelBinder.EXPRESSION_PARSER::parseExpression),
+            retryOrDeadLetter ? this.buildRetryTemplate(properties) : null,
+            this.getDeadLetterPublisher(extension),
+            extension.getDlqName());
+    }
+
+    private void configureListenerContainer(
+        final ConsumerMessageListenerContainer listenerContainer,
+        final ConsumerDestination consumerDestination,
+        final ExtendedConsumerProperties<JmsConsumerProperties> properties) {
+
+        final JmsConsumerProperties extension = properties.getExtension();
+        final int concurrency = Math.max(1, properties.getConcurrency());
+        final int maxConcurrency = Math
+            .max(concurrency, extension.getMaxConcurrency());
+
+        int maxMessagesPerTask = extension.getMaxMessagesPerTask();
+        if (maxMessagesPerTask <= 0) {
+            // Surplus consumers are only released when their task completes
+            maxMessagesPerTask = maxConcurrency > concurrency
+                    ? JMSMessageChannelBinder.DEFAULT_SCALING_MAX_MESSAGES_PER_TASK
+                    : -1;
+        }
+
+        listenerContainer.setConnectionFactory(this.connectionFactory);
+        if (this.configurationProperties.isVirtualThreads()) {
+            // A thread per consumer, as with the container's default executor
+            listenerContainer.setTaskExecutor(new SimpleAsyncTaskExecutor(
+                this.threadFactory("jms-binder-consumer-")));
+        }
+        listenerContainer.setDestinationName(
+            JMSMessageChannelBinder.getAddress(consumerDestination));
+        listenerContainer.setMessageSelector(extension.getSelector());
+        listenerContainer.setConcurrentConsumers(concurrency);
+        listenerContainer.setMaxConcurrentConsumers(maxConcurrency);
+        listenerContainer.setMaxMessagesPerTask(maxMessagesPerTask);
+        listenerContainer.setIdleConsumerLimit(extension.getIdleConsumerLimit());
+        listenerContainer
+            .setIdleTaskExecutionLimit(extension.getIdleTaskExecutionLimit());
+        listenerContainer.setReceiveTimeout(extension.getReceiveTimeout());
+        if (extension.getAcknowledgeMode() != null) {
+            listenerContainer.setSessionAcknowledgeMode(
+                extension.getAcknowledgeMode().getMode());
+        }
+        listenerContainer
+            .setOptimizeAcknowledge(extension.isOptimizeAcknowledge());
+        if (extension.getTransacted() != null) {
+            listenerContainer.setSessionTransacted(extension.getTransacted());
+        }
+        if (extension.getCacheLevel() != null) {
+            listenerContainer
+                .setCacheLevel(extension.getCacheLevel().getLevel());
+        }
+    }
 
-        return Jms.messageDrivenChannelAdapter(listenerContainer).get();
+    /**
+     * @return the factory of the threads of the binder's own work, or
+     * <code>null</code> when the default platform threads are used
+     */
+    private ThreadFactory threadFactory(final String prefix) {
+        return this.configurationProperties.isVirtualThreads()
+                ? VirtualThreads.threadFactory(prefix, true)
+                : null;
+    }
+
+    private boolean isRetryOrDeadLetter(
+        final ExtendedConsumerProperties<JmsConsumerProperties> properties) {
+        return properties.getMaxAttempts() > 1
+                || properties.getExtension().getDlqName() != null;
+    }
+
+    private synchronized DeadLetterPublisher getDeadLetterPublisher(
+        final JmsConsumerProperties extension) {
+        if (extension.getDlqName() == null) {
+            return null;
+        }
+        if (this.deadLetterPublisher == null) {
+            final RepublishMessageRecoverer recoverer = new RepublishMessageRecoverer(
+                new JmsTemplate(this.producerConnectionFactory),
+                this.headerMapper);
+            recoverer.setMaxStackTraceBytes(
+                this.configurationProperties.getDeadLetterStackTraceBytes());
+            recoverer.setMaxStackTraceDepth(
+                this.configurationProperties.getDeadLetterStackTraceDepth());
+            this.deadLetterPublisher = new DeadLetterPublisher(recoverer,
+                this.configurationProperties.getDeadLetterPoolSize(),
+                this.configurationProperties.getDeadLetterQueueCapacity(),
+                this.threadFactory("jms-binder-dlq-"));
+        }
+        return this.deadLetterPublisher;
+    }
+
+    /**
+     * Takes a reference to the meters of a binding with its own consumers,
+     * released once the binding is unbound.
+     */
+    private ConsumerMeters acquireConsumerMeters(
+        final ConsumerDestination bindingDestination,
+        final ConsumerDestination consumerDestination,
+        final String group,
+        final IntSupplier activeConsumers) {
+        final ConsumerMeters meters = this.getConsumerMeters(
+            consumerDestination, group, activeConsumers);
+        this.meteredConsumers.add(bindingDestination);
+        return meters;
+    }
+
+    private ConsumerMeters getConsumerMeters(
+        final ConsumerDestination consumerDestination,
+        final String group,
+        final IntSupplier activeConsumers) {
+        return this.bindingMetrics.consumerMeters(
+            consumerDestination.getName(),
+            group,
+            activeConsumers);
     }
 
     @Override
@@ -106,41 +607,378 @@ public class JMSMessageChannelBinder extends
 
         final JmsProducerDestination jmsProducerDestination = (JmsProducerDestination) producerDestination;
 
+        MessageHandler handler = this.createDestinationMessageHandler(
+            jmsProducerDestination,
+            producerProperties,
+            errorChannel);
+        if (this.bindingMetrics != null) {
+            handler = new MeteredMessageHandler(handler,
+                this.bindingMetrics.producerMeters(JMSMessageChannelBinder
+                    .getMetricsName(jmsProducerDestination)));
+        }
+        final JmsProducerProperties extension = producerProperties
+            .getExtension();
+        if (extension.getClaimCheckThreshold() > 0) {
+            handler = new ClaimCheckMessageHandler(handler,
+                this.getPayloadStore(), extension.getClaimCheckThreshold());
+        }
+        if (extension.getCompression() != null) {
+            // Once for all the queues a message may be sent to, and before being checked in
+            handler = new CompressingMessageHandler(handler,
+                this.getCompressionCodec(extension.getCompression()),
+                extension.getCompressionThreshold());
+        }
+        if (extension.getGroupKeyExpression() != null) {
+            // Evaluated against the payload as sent, not compressed nor checked in
+            handler = new GroupingMessageHandler(handler,
+                JMSMessageChannelBinder.EXPRESSION_PARSER
+                    .parseExpression(extension.getGroupKeyExpression()),
+                this.getEvaluationContext());
+        }
+        if (extension.isRequestReply()) {
+            handler = new RequestReplyMessageHandler(handler,
+                this.getReplyCorrelator(), extension.getReplyTimeout());
+        }
+        return handler;
+    }
+
+    private CompressionCodec getCompressionCodec(final String name) {
+        final CompressionCodec codec = this.compressionCodecs.get(name);
+        if (codec == null) {
+            throw new IllegalArgumentException("No compression codec named '"
+                    + name + "', available are " + this.compressionCodecs.keySet());
+        }
+        return codec;
+    }
+
+    private synchronized ReplyCorrelator getReplyCorrelator() {
+        if (this.replyCorrelator == null) {
+            final ReplyCorrelator correlator = new ReplyCorrelator(
+                this.connectionFactory,
+                this.replyQueueNamingStrategy.generateName(),
+                this.messageConverter,
+                this.headerMapper,
+                this.threadFactory("jms-binder-reply-"));
+            correlator.start();
+            this.replyCorrelator = correlator;
+        }
+        return this.replyCorrelator;
+    }
+
+    private synchronized PayloadStore getPayloadStore() {
+        if (this.payloadStore == null) {
+            final FileSystemPayloadStore fileSystemPayloadStore = new FileSystemPayloadStore(
+                Paths.get(this.configurationProperties.getClaimCheckDirectory()),
+                this.configurationProperties.getClaimCheckRetention());
+            fileSystemPayloadStore.afterPropertiesSet();
+            this.ownPayloadStore = fileSystemPayloadStore;
+            this.payloadStore = fileSystemPayloadStore;
+        }
+        return this.payloadStore;
+    }
+
+    private MessageHandler createDestinationMessageHandler(
+        final JmsProducerDestination jmsProducerDestination,
+        final ExtendedProducerProperties<JmsProducerProperties> producerProperties,
+        final MessageChannel errorChannel) throws IllegalStateException {
+
+        if (jmsProducerDestination.isPartitioned()) {
+            return this.createPartitionedMessageHandler(
+                jmsProducerDestination,
+                producerProperties,
+                errorChannel);
+        }
+
         final String topicName = jmsProducerDestination.getName();
 
         if (topicName != null && !topicName.isEmpty()) {
 
             // Topic is take the precedence for binding
 
-            final JmsSendingMessageHandler handler = Jms
-                .outboundAdapter(this.connectionFactory)
-                .configureJmsTemplate(s -> s.pubSubDomain(true))
-                .destination(topicName).get();
-            {
-                handler.setBeanFactory(this.getBeanFactory());
+            return this.createSendingMessageHandler(
+                topicName,
+                true,
+                producerProperties,
+                errorChannel);
+        }
+
+        return this.createQueuesMessageHandler(
+            jmsProducerDestination.getQueueNames(),
+            producerProperties,
+            errorChannel);
+    }
+
+    private MessageHandler createPartitionedMessageHandler(
+        final JmsProducerDestination jmsProducerDestination,
+        final ExtendedProducerProperties<JmsProducerProperties> producerProperties,
+        final MessageChannel errorChannel) throws IllegalStateException {
+
+        final TopicPartitionRegistrar registrar = jmsProducerDestination
+            .getPartitionRegistrar();
+        final List<MessageHandler> handlers = new ArrayList<>();
+        for (int partition = 0; partition < jmsProducerDestination
+            .getPartitionCount(); partition++) {
+            final Topic topic = registrar.getDestination(partition);
+            if (topic != null) {
+                handlers.add(
+                    this.createSendingMessageHandler(
+                        jmsProducerDestination.getNameForPartition(partition),
+                        true,
+                        producerProperties,
+                        errorChannel));
+            }
+            else {
+                handlers.add(
+                    this.createQueuesMessageHandler(
+                        jmsProducerDestination.getQueueNames(partition),
+                        producerProperties,
+                        errorChannel));
             }
-            return handler;
         }
+        return new PartitionRoutingMessageHandler(handlers);
+    }
+
+    private MessageHandler createQueuesMessageHandler(
+        final String[] queueNames,
+        final ExtendedProducerProperties<JmsProducerProperties> producerProperties,
+        final MessageChannel errorChannel) throws IllegalStateException {
 
-        final String[] queueNames = jmsProducerDestination.getQueueNames();
         if (queueNames == null || queueNames.length == 0) {
             throw new IllegalStateException(
                 "Both topic and queue are undefined under producer destination. At least one of them must be available for binding!");
         }
-        final List<JmsSendingMessageHandler> handlers = new ArrayList<>();
+        final FanOutMode fanOut = producerProperties.getExtension()
+            .getFanOut();
+        if (fanOut == FanOutMode.PARALLEL_TRANSACTED) {
+            // Sends each message in its own transaction, whatever the number of queues
+            Assert.isTrue(producerProperties.getExtension().getBatchSize() == 1
+                    && !producerProperties.getExtension().isReactive(),
+                "Transacted fan-out supports neither batchSize nor reactive sending");
+        }
+        if (fanOut == FanOutMode.PARALLEL_TRANSACTED && queueNames.length > 1) {
+            final JmsTemplate jmsTemplate = this.createJmsTemplate(false,
+                producerProperties.getExtension());
+            final TransactedFanOutMessageHandler handler = new TransactedFanOutMessageHandler(
+                this.producerConnectionFactory, queueNames, jmsTemplate,
+                this.getFanOutExecutor());
+            handler.setHeaderMapper(this.headerMapper);
+            return handler;
+        }
+
+        final List<MessageHandler> handlers = new ArrayList<>();
         final MessageHandlerChain chainHandler = new MessageHandlerChain(
-            handlers);
+            handlers,
+            fanOut == FanOutMode.PARALLEL && queueNames.length > 1
+                    ? this.getFanOutExecutor()
+                    : null);
 
         for (final String queueName : queueNames) {
-            final JmsSendingMessageHandler handler = Jms
-                .outboundAdapter(this.connectionFactory).destination(queueName)
-                .get();
+            handlers.add(
+                this.createSendingMessageHandler(
+                    queueName,
+                    false,
+                    producerProperties,
+                    errorChannel));
+        }
+        return chainHandler;
+    }
+
+    private synchronized Executor getFanOutExecutor() {
+        if (this.fanOutExecutor == null) {
+            final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(
+                this.configurationProperties.getFanOutPoolSize());
+            executor.setMaxPoolSize(
+                this.configurationProperties.getFanOutPoolSize());
+            executor.setQueueCapacity(
+                this.configurationProperties.getFanOutQueueCapacity());
+            // When saturated the sending thread does the work, which bounds the backlog
+            executor.setRejectedExecutionHandler(new CallerRunsPolicy());
+            executor.setThreadNamePrefix("jms-binder-fan-out-");
+            executor.setDaemon(true);
+            executor.setThreadFactory(this.threadFactory("jms-binder-fan-out-"));
+            executor.initialize();
+            this.fanOutExecutor = executor;
+        }
+        return this.fanOutExecutor;
+    }
+
+    private MessageHandler createSendingMessageHandler(
+        final String destinationName,
+        final boolean pubSubDomain,
+        final ExtendedProducerProperties<JmsProducerProperties> producerProperties,
+        final MessageChannel errorChannel) {
+
+        final JmsProducerProperties extension = producerProperties
+            .getExtension();
+
+        if (extension.isReactive()) {
+            final ReactiveJmsSendingMessageHandler handler = new ReactiveJmsSendingMessageHandler(
+                this.createJmsTemplate(pubSubDomain, extension), destinationName,
+                extension.getBatchSize(), extension.getBatchTimeout(),
+                extension.getMaxInFlight());
             {
+                handler.setErrorChannel(errorChannel);
+                handler.setHeaderMapper(this.headerMapper);
                 handler.setBeanFactory(this.getBeanFactory());
             }
-            handlers.add(handler);
+            return handler;
+        }
+
+        if (extension.getBatchSize() > 1) {
+            final JmsTemplate jmsTemplate = this.createJmsTemplate(pubSubDomain,
+                extension);
+            final BatchingJmsSendingMessageHandler handler = new BatchingJmsSendingMessageHandler(
+                jmsTemplate, destinationName, extension.getBatchSize(),
+                extension.getBatchTimeout());
+            {
+                handler.setErrorChannel(errorChannel);
+                handler.setHeaderMapper(this.headerMapper);
+                handler.setBeanFactory(this.getBeanFactory());
+            }
+            return handler;
+        }
+
+        final JmsSendingMessageHandler handler = Jms
+            .outboundAdapter(this.createJmsTemplate(pubSubDomain, extension))
+            .headerMapper(this.headerMapper)
+            .destination(destinationName).get();
+        {
+            handler.setBeanFactory(this.getBeanFactory());
+        }
+        return handler;
+    }
+
+    private JmsTemplate createJmsTemplate(
+        final boolean pubSubDomain,
+        final JmsProducerProperties extension) {
+        // Keeps the priority of a message taking precedence, as with the adapter's own template
+        final DynamicJmsTemplate jmsTemplate = new DynamicJmsTemplate();
+        jmsTemplate.setConnectionFactory(this.producerConnectionFactory);
+        jmsTemplate.setPubSubDomain(pubSubDomain);
+        if (extension.getDeliveryMode() != null) {
+            jmsTemplate.setDeliveryMode(extension.getDeliveryMode().getMode());
+        }
+        if (extension.getPriority() != null) {
+            jmsTemplate.setPriority(extension.getPriority());
+        }
+        if (extension.getTimeToLive() != null) {
+            jmsTemplate.setTimeToLive(extension.getTimeToLive());
+        }
+        jmsTemplate.setExplicitQosEnabled(extension.isExplicitQos()
+                || extension.getDeliveryMode() != null
+                || extension.getPriority() != null
+                || extension.getTimeToLive() != null);
+        return jmsTemplate;
+    }
+
+    /**
+     * The name of the destination including its provider specific options,
+     * such as the prefetch.
+     */
+    private static String getAddress(
+        final ConsumerDestination consumerDestination) {
+        return consumerDestination instanceof JmsConsumerDestination
+                ? ((JmsConsumerDestination) consumerDestination).getAddress()
+                : consumerDestination.getName();
+    }
+
+    /**
+     * The topic a producer sends to or, when only bound to queues, the list of
+     * them.
+     */
+    private static String getMetricsName(
+        final JmsProducerDestination producerDestination) {
+        final String topicName = producerDestination.getName();
+        if (topicName != null && !topicName.isEmpty()) {
+            return topicName;
+        }
+        final String[] queueNames = producerDestination.getQueueNames();
+        return queueNames != null ? String.join(",", queueNames)
+                : String.valueOf(topicName);
+    }
+
+    @Override
+    protected void afterUnbindConsumer(
+        final ConsumerDestination destination,
+        final String group,
+        final ExtendedConsumerProperties<JmsConsumerProperties> consumerProperties) {
+        // The container of routed bindings outlives all but the last of them
+        final boolean metered = consumerProperties.getExtension()
+            .getRoute() == null
+                ? this.meteredConsumers.remove(destination)
+                : this.removeRoutingListener(
+                    JMSMessageChannelBinder.getAddress(destination));
+        if (this.bindingMetrics != null && metered) {
+            this.bindingMetrics.removeConsumerMeters(destination.getName(), group);
+        }
+    }
+
+    @Override
+    protected void afterUnbindProducer(
+        final ProducerDestination destination,
+        final ExtendedProducerProperties<JmsProducerProperties> producerProperties) {
+        if (this.bindingMetrics != null
+                && destination instanceof JmsProducerDestination) {
+            this.bindingMetrics.removeProducerMeters(
+                JMSMessageChannelBinder.getMetricsName(
+                    (JmsProducerDestination) destination));
+        }
+    }
+
+    /**
+     * Destroys the listener of a destination once its last route was unbound.
+     *
+     * @return whether the listener was destroyed
+     */
+    private synchronized boolean removeRoutingListener(final String address) {
+        final RoutingMessageListener routingListener = this.routingListeners
+            .get(address);
+        if (routingListener != null && !routingListener.hasRoutes()) {
+            this.routingListeners.remove(address);
+            routingListener.destroy();
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void startRoutingListeners() {
+        this.routingStartable = true;
+        this.routingListeners.values()
+            .forEach(routingListener -> routingListener.setStartable(true));
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (this.parallelBindingStarter != null) {
+            this.parallelBindingStarter.destroy();
+        }
+        synchronized (this) {
+            if (this.fanOutExecutor != null) {
+                this.fanOutExecutor.shutdown();
+                this.fanOutExecutor = null;
+            }
+            this.routingListeners.values()
+                .forEach(RoutingMessageListener::destroy);
+            this.routingListeners.clear();
+            if (this.replyCorrelator != null) {
+                this.replyCorrelator.destroy();
+                this.replyCorrelator = null;
+            }
+            if (this.ownPayloadStore != null) {
+                this.ownPayloadStore.destroy();
+                this.ownPayloadStore = null;
+            }
+            // Publishes what is still pending before the connection factory goes away
+            if (this.deadLetterPublisher != null) {
+                this.deadLetterPublisher.destroy();
+                this.deadLetterPublisher = null;
+            }
+        }
+        if (this.producerConnectionFactory != this.connectionFactory
+                && this.producerConnectionFactory instanceof DisposableBean) {
+            ((DisposableBean) this.producerConnectionFactory).destroy();
         }
-        return chainHandler;
     }
 
     @Override
@@ -168,6 +1006,102 @@ public class JMSMessageChannelBinder extends
         return this.extendedBindingProperties.getExtendedPropertiesEntryClass();
     }
 
+    /**
+     * Provision and start consumer bindings on the given starter. The binder's
+     * provisioning provider is expected to hand out
+     * {@link DeferredConsumerDestination}s through the same starter.
+     */
+    public void setParallelBindingStarter(
+        final ParallelBindingStarter parallelBindingStarter) {
+        this.parallelBindingStarter = parallelBindingStarter;
+    }
+
+    @Override
+    protected void onInit() throws Exception {
+        super.onInit();
+        // The bindings are created while the application context starts, it is
+        // refreshed once all of them were submitted
+        final ApplicationContext parent = this.getApplicationContext() != null
+                ? this.getApplicationContext().getParent()
+                : null;
+        if (parent instanceof ConfigurableApplicationContext) {
+            ((ConfigurableApplicationContext) parent).addApplicationListener(
+                (ApplicationListener<ApplicationEvent>) event -> {
+                    if (event instanceof ContextRefreshedEvent
+                            && event.getSource() == parent) {
+                        if (this.parallelBindingStarter != null) {
+                            this.parallelBindingStarter.awaitStartup();
+                        }
+                        this.startRoutingListeners();
+                    }
+                });
+            return;
+        }
+        if (this.parallelBindingStarter != null) {
+            this.logger.warn(
+                "No parent application context to wait for, bindings failing "
+                        + "to start in parallel are only logged");
+        }
+        this.startRoutingListeners();
+    }
+
+    /**
+     * Record metrics of every binding created from now on. Without it the
+     * bindings are not instrumented.
+     */
+    public void setBindingMetrics(final BindingMetrics bindingMetrics) {
+        this.bindingMetrics = bindingMetrics;
+    }
+
+    /**
+     * Register codecs producers can compress with and consumers decompress
+     * with, replacing those of the same name. {@link DeflateCompressionCodec}
+     * is always registered.
+     */
+    public void setCompressionCodecs(
+        final Collection<? extends CompressionCodec> compressionCodecs) {
+        for (final CompressionCodec codec : compressionCodecs) {
+            this.compressionCodecs.put(codec.getName(), codec);
+        }
+    }
+
+    /**
+     * Set the store payloads above a producer's
+     * <code>claimCheckThreshold</code> are put into, in place of the
+     * {@link FileSystemPayloadStore} created from the binder properties.
+     */
+    public synchronized void setPayloadStore(final PayloadStore payloadStore) {
+        this.payloadStore = payloadStore;
+    }
+
+    /**
+     * Set the strategy naming the queue the binder receives replies to
+     * requests on, generating names starting with <code>spring.reply-</code>
+     * by default.
+     */
+    public void setReplyQueueNamingStrategy(
+        final AnonymousNamingStrategy replyQueueNamingStrategy) {
+        this.replyQueueNamingStrategy = replyQueueNamingStrategy;
+    }
+
+    public void setConfigurationProperties(
+        final JmsBinderConfigurationProperties configurationProperties) {
+        this.configurationProperties = configurationProperties;
+    }
+
+    /**
+     * Set the connection factory used by producer bindings, typically a caching
+     * one wrapping the connection factory given at construction time. It is
+     * destroyed together with the binder.
+     */
+    public void setProducerConnectionFactory(
+        final ConnectionFactory producerConnectionFactory) {
+        Assert.notNull(
+            producerConnectionFactory,
+            "The producer connection factory must not be null");
+        this.producerConnectionFactory = producerConnectionFactory;
+    }
+
     public void setExtendedBindingProperties(
         final ExtendedBindingProperties<JmsConsumerProperties, JmsProducerProperties> extendedBindingProperties) {
         this.extendedBindingProperties = extendedBindingProperties;
@@ -0,0 +1,124 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+import org.springframework.integration.endpoint.MessageProducerSupport;
+import org.springframework.integration.jms.DefaultJmsHeaderMapper;
+import org.springframework.integration.jms.JmsHeaderMapper;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.jms.support.converter.SimpleMessageConverter;
+import org.springframework.util.Assert;
+
+/**
+ * Message driven endpoint emitting every batch of a
+ * {@link BatchMessageListenerContainer} as one <code>Message&lt;List&lt;?&gt;&gt;</code>.
+ * <p>
+ * The payload holds the converted payloads in the order they were received,
+ * the {@link #BATCH_HEADERS} header the mapped headers of each of them at the
+ * same index.
+ */
+public class JmsBatchMessageDrivenEndpoint extends MessageProducerSupport
+        implements BatchMessageListenerContainer.BatchMessageListener {
+
+    /**
+     * Header holding the <code>List&lt;Map&lt;String, Object&gt;&gt;</code> of
+     * per message headers.
+     */
+    public static final String BATCH_HEADERS = "jms_batchHeaders";
+
+    private final BatchMessageListenerContainer listenerContainer;
+
+    private MessageConverter messageConverter = new SimpleMessageConverter();
+
+    private JmsHeaderMapper headerMapper = new DefaultJmsHeaderMapper();
+
+    public JmsBatchMessageDrivenEndpoint(
+            final BatchMessageListenerContainer listenerContainer) {
+        Assert.notNull(listenerContainer, "The listener container must not be null");
+        this.listenerContainer = listenerContainer;
+        this.listenerContainer.setBatchMessageListener(this);
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        this.listenerContainer.destroy();
+    }
+
+    @Override
+    public String getComponentType() {
+        return "jms:batch-message-driven-channel-adapter";
+    }
+
+    public BatchMessageListenerContainer getListenerContainer() {
+        return this.listenerContainer;
+    }
+
+    @Override
+    public void onMessages(final List<Message> messages, final Session session)
+            throws JMSException {
+        final List<Object> payloads = new ArrayList<>(messages.size());
+        final List<Map<String, Object>> headers = new ArrayList<>(
+            messages.size());
+        for (final Message message : messages) {
+            payloads.add(this.messageConverter.fromMessage(message));
+            headers.add(this.headerMapper.toHeaders(message));
+        }
+        this.sendMessage(
+            this.getMessageBuilderFactory()
+                .withPayload(payloads)
+                .setHeader(JmsBatchMessageDrivenEndpoint.BATCH_HEADERS, headers)
+                .build());
+    }
+
+    public void setHeaderMapper(final JmsHeaderMapper headerMapper) {
+        Assert.notNull(headerMapper, "'headerMapper' cannot be null");
+        this.headerMapper = headerMapper;
+    }
+
+    public void setMessageConverter(final MessageConverter messageConverter) {
+        Assert.notNull(messageConverter, "'messageConverter' cannot be null");
+        this.messageConverter = messageConverter;
+    }
+
+    @Override
+    protected void doStart() {
+        this.listenerContainer.start();
+    }
+
+    @Override
+    protected void doStop() {
+        this.listenerContainer.stop();
+    }
+
+    @Override
+    protected void onInit() {
+        super.onInit();
+        if (!this.listenerContainer.isActive()) {
+            this.listenerContainer.afterPropertiesSet();
+        }
+    }
+
+}
@@ -0,0 +1,367 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+
+import org.springframework.integration.endpoint.MessageProducerSupport;
+import org.springframework.integration.jms.DefaultJmsHeaderMapper;
+import org.springframework.integration.jms.JmsHeaderMapper;
+import org.springframework.jms.listener.SessionAwareMessageListener;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.jms.support.converter.SimpleMessageConverter;
+import org.springframework.jms.support.destination.DestinationResolver;
+import org.springframework.jms.support.destination.DynamicDestinationResolver;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Endpoint receiving the messages of a queue as a back-pressured {@link Flux}
+ * instead of through a listener container.
+ * <p>
+ * Every subscription to {@link #receive()} opens its own connection and
+ * <code>CLIENT_ACKNOWLEDGE</code> session, and only receives a message once
+ * the subscriber requested it. Receiving blocks, so it happens on a bounded
+ * elastic scheduler rather than on the thread of the subscriber. A message is
+ * acknowledged when the next one is requested; should the subscription end
+ * before, it is redelivered by the broker.
+ * <p>
+ * When started, the endpoint subscribes <code>concurrency</code> times and
+ * hands every message to its {@link #setMessageListener(Object) message
+ * listener}: the endpoint itself, sending the message to its output channel,
+ * unless decorated, e.g. to retry it. A failed listener ends the
+ * subscription, which is renewed after <code>recoveryInterval</code>.
+ */
+public class ReactiveJmsMessageDrivenEndpoint extends MessageProducerSupport
+        implements MessageListener {
+
+    /**
+     * Hands a message received to the subscriber.
+     */
+    @FunctionalInterface
+    private interface Delivery<T> {
+
+        T deliver(javax.jms.Message message, Session session)
+                throws JMSException;
+
+    }
+
+    private final ConnectionFactory connectionFactory;
+
+    private final String destinationName;
+
+    private int concurrency = 1;
+
+    private long receiveTimeout = 1000;
+
+    private long recoveryInterval = 1000;
+
+    private DestinationResolver destinationResolver = new DynamicDestinationResolver();
+
+    private MessageConverter messageConverter = new SimpleMessageConverter();
+
+    private JmsHeaderMapper headerMapper = new DefaultJmsHeaderMapper();
+
+    private String messageSelector;
+
+    private Object messageListener = this;
+
+    private final AtomicInteger openSessions = new AtomicInteger();
+
+    private Disposable.Composite subscriptions;
+
+    public ReactiveJmsMessageDrivenEndpoint(
+            final ConnectionFactory connectionFactory,
+            final String destinationName) {
+        Assert.notNull(connectionFactory, "The connection factory must not be null");
+        Assert.hasText(destinationName, "The destination name must be set");
+        this.connectionFactory = connectionFactory;
+        this.destinationName = destinationName;
+    }
+
+    @Override
+    public String getComponentType() {
+        return "jms:reactive-message-driven-channel-adapter";
+    }
+
+    /**
+     * Messages of the queue, received as they are requested. The returned
+     * {@link Flux} is cold: every subscriber competes for the messages of the
+     * queue with its own session.
+     */
+    public Flux<Message<?>> receive() {
+        return this.receive((jmsMessage, session) -> this.toMessage(jmsMessage));
+    }
+
+    /**
+     * Number of subscriptions currently holding a session.
+     */
+    public int getActiveSubscriptionCount() {
+        return this.openSessions.get();
+    }
+
+    public Object getMessageListener() {
+        return this.messageListener;
+    }
+
+    /**
+     * Sends a message received by a subscription of the endpoint to the
+     * output channel.
+     */
+    @Override
+    public void onMessage(final javax.jms.Message jmsMessage) {
+        try {
+            this.sendMessage(this.toMessage(jmsMessage));
+        }
+        catch (final JMSException e) {
+            throw JmsUtils.convertJmsAccessException(e);
+        }
+    }
+
+    /**
+     * Number of subscriptions sending to the output channel once started.
+     */
+    public void setConcurrency(final int concurrency) {
+        Assert.isTrue(concurrency > 0, "The concurrency must be positive");
+        this.concurrency = concurrency;
+    }
+
+    public void setDestinationResolver(
+        final DestinationResolver destinationResolver) {
+        Assert.notNull(destinationResolver, "'destinationResolver' cannot be null");
+        this.destinationResolver = destinationResolver;
+    }
+
+    public void setHeaderMapper(final JmsHeaderMapper headerMapper) {
+        Assert.notNull(headerMapper, "'headerMapper' cannot be null");
+        this.headerMapper = headerMapper;
+    }
+
+    public void setMessageConverter(final MessageConverter messageConverter) {
+        Assert.notNull(messageConverter, "'messageConverter' cannot be null");
+        this.messageConverter = messageConverter;
+    }
+
+    /**
+     * @param messageListener a {@link MessageListener} or a
+     * {@link SessionAwareMessageListener} the messages received once started
+     * are handed to, acknowledged once it returned
+     */
+    public void setMessageListener(final Object messageListener) {
+        Assert.isTrue(messageListener instanceof MessageListener
+                || messageListener instanceof SessionAwareMessageListener,
+            "Unsupported message listener type: " + messageListener);
+        this.messageListener = messageListener;
+    }
+
+    /**
+     * JMS selector of the messages received, <code>null</code> for all of
+     * them.
+     */
+    public void setMessageSelector(final String messageSelector) {
+        this.messageSelector = messageSelector;
+    }
+
+    /**
+     * Milliseconds a subscription waits before it is renewed after a failure.
+     */
+    public void setRecoveryInterval(final long recoveryInterval) {
+        this.recoveryInterval = recoveryInterval;
+    }
+
+    /**
+     * Milliseconds a receive blocks before checking whether the subscription
+     * was cancelled.
+     */
+    public void setReceiveTimeout(final long receiveTimeout) {
+        this.receiveTimeout = receiveTimeout;
+    }
+
+    @Override
+    protected void doStart() {
+        final Disposable.Composite subscriptions = Disposables.composite();
+        for (int i = 0; i < this.concurrency; i++) {
+            subscriptions.add(this.receive(this::invokeListener)
+                .doOnError(e -> this.logger.error("Subscription to "
+                        + this.destinationName + " failed, it is renewed in "
+                        + this.recoveryInterval + "ms",
+                    e))
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE,
+                    Duration.ofMillis(this.recoveryInterval)))
+                .subscribe());
+        }
+        this.subscriptions = subscriptions;
+    }
+
+    @Override
+    protected void doStop() {
+        if (this.subscriptions != null) {
+            this.subscriptions.dispose();
+            this.subscriptions = null;
+        }
+    }
+
+    private <T> Flux<T> receive(final Delivery<T> delivery) {
+        return Flux.defer(() -> {
+            final Receiver receiver = new Receiver();
+            return Flux
+                .<T> generate(sink -> this.receiveNext(receiver, delivery, sink))
+                .doFinally(signal -> receiver.close())
+                .subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private javax.jms.Message invokeListener(
+        final javax.jms.Message jmsMessage,
+        final Session session) throws JMSException {
+        if (this.messageListener instanceof SessionAwareMessageListener) {
+            ((SessionAwareMessageListener<javax.jms.Message>) this.messageListener)
+                .onMessage(jmsMessage, session);
+        }
+        else {
+            ((MessageListener) this.messageListener).onMessage(jmsMessage);
+        }
+        return jmsMessage;
+    }
+
+    private Message<?> toMessage(final javax.jms.Message jmsMessage)
+            throws JMSException {
+        return this.getMessageBuilderFactory()
+            .withPayload(this.messageConverter.fromMessage(jmsMessage))
+            .copyHeaders(this.headerMapper.toHeaders(jmsMessage)).build();
+    }
+
+    private <T> void receiveNext(
+        final Receiver receiver,
+        final Delivery<T> delivery,
+        final SynchronousSink<T> sink) {
+        try {
+            // Requested again, so the subscriber is done with the previous one
+            receiver.acknowledge();
+            final javax.jms.Message jmsMessage = receiver.receive();
+            if (jmsMessage == null) {
+                sink.complete();
+                return;
+            }
+            sink.next(delivery.deliver(jmsMessage, receiver.session));
+        }
+        catch (final JMSException e) {
+            if (receiver.closed) {
+                // Closed while receiving, nobody is listening anymore
+                sink.complete();
+            }
+            else {
+                sink.error(JmsUtils.convertJmsAccessException(e));
+            }
+        }
+    }
+
+    /**
+     * Session of one subscription. Receiving happens on the thread of the
+     * subscription only; closing may happen on any thread and wakes up a
+     * pending receive.
+     */
+    private final class Receiver {
+
+        private Connection connection;
+
+        private Session session;
+
+        private MessageConsumer consumer;
+
+        private javax.jms.Message pending;
+
+        private volatile boolean closed;
+
+        void acknowledge() throws JMSException {
+            if (this.pending != null) {
+                final javax.jms.Message message = this.pending;
+                this.pending = null;
+                message.acknowledge();
+            }
+        }
+
+        /**
+         * @return the next message, or <code>null</code> once closed
+         */
+        javax.jms.Message receive() throws JMSException {
+            final MessageConsumer consumer = this.open();
+            while (consumer != null && !this.closed) {
+                final javax.jms.Message message = consumer.receive(
+                    ReactiveJmsMessageDrivenEndpoint.this.receiveTimeout);
+                if (message != null) {
+                    this.pending = message;
+                    return message;
+                }
+            }
+            return null;
+        }
+
+        synchronized void close() {
+            if (this.session != null) {
+                ReactiveJmsMessageDrivenEndpoint.this.openSessions
+                    .decrementAndGet();
+            }
+            this.closed = true;
+            JmsUtils.closeMessageConsumer(this.consumer);
+            JmsUtils.closeSession(this.session);
+            JmsUtils.closeConnection(this.connection, true);
+            this.consumer = null;
+            this.session = null;
+            this.connection = null;
+        }
+
+        private synchronized MessageConsumer open() throws JMSException {
+            if (this.consumer == null && !this.closed) {
+                this.connection = ReactiveJmsMessageDrivenEndpoint.this.connectionFactory
+                    .createConnection();
+                this.session = this.connection
+                    .createSession(false, Session.CLIENT_ACKNOWLEDGE);
+                ReactiveJmsMessageDrivenEndpoint.this.openSessions
+                    .incrementAndGet();
+                final Destination destination = ReactiveJmsMessageDrivenEndpoint.this.destinationResolver
+                    .resolveDestinationName(this.session,
+                        ReactiveJmsMessageDrivenEndpoint.this.destinationName,
+                        false);
+                this.consumer = this.session.createConsumer(destination,
+                    ReactiveJmsMessageDrivenEndpoint.this.messageSelector);
+                this.connection.start();
+            }
+            return this.consumer;
+        }
+
+    }
+
+}
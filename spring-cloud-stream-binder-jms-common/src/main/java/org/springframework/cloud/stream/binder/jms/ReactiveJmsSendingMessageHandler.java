@@ -0,0 +1,238 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.reactivestreams.Publisher;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.util.Assert;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.EmitterProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Sends messages from a {@link Publisher}, in transacted batches committed
+ * while the next batch is being collected.
+ * <p>
+ * {@link #send(Publisher)} requests at most <code>maxInFlight</code> messages
+ * not committed yet and emits every message once its batch was committed.
+ * Sending blocks, so it happens on a bounded elastic scheduler rather than on
+ * the thread of the publisher.
+ * <p>
+ * Messages handed to {@link #handleMessage(Message)} go through the same
+ * pipeline. The caller only waits when <code>maxInFlight</code> messages are
+ * not committed yet; failures are reported on the error channel, as for
+ * {@link BatchingJmsSendingMessageHandler}. Should the pipeline terminate
+ * anyway, the messages it held are logged as lost and a new one takes over.
+ */
+public class ReactiveJmsSendingMessageHandler
+        extends BatchingJmsSendingMessageHandler {
+
+    private static final long SHUTDOWN_TIMEOUT = 30000;
+
+    /**
+     * The pipeline fed by {@link ReactiveJmsSendingMessageHandler#handleMessage(Message)}
+     * and the permits of the messages it holds.
+     */
+    private final class Pipeline {
+
+        private final Semaphore inFlight = new Semaphore(
+            ReactiveJmsSendingMessageHandler.this.maxInFlight);
+
+        private final FluxSink<Message<?>> sink;
+
+        private final Disposable subscription;
+
+        Pipeline() {
+            final EmitterProcessor<Message<?>> processor = EmitterProcessor
+                .create(false);
+            this.sink = processor.sink();
+            this.subscription = ReactiveJmsSendingMessageHandler.this
+                .batches(processor)
+                .subscribe(this::send, this::failed);
+        }
+
+        private void send(final List<Message<?>> batch) {
+            try {
+                ReactiveJmsSendingMessageHandler.this.sendBatch(batch);
+            }
+            catch (final RuntimeException e) {
+                ReactiveJmsSendingMessageHandler.this.handleFailure(batch, e);
+            }
+            finally {
+                this.inFlight.release(batch.size());
+            }
+        }
+
+        private void failed(final Throwable failure) {
+            ReactiveJmsSendingMessageHandler.this.pipelineFailed(this, failure);
+        }
+
+    }
+
+    private final int maxInFlight;
+
+    private final Object lifecycleMonitor = new Object();
+
+    private volatile Pipeline pipeline;
+
+    private volatile boolean running;
+
+    public ReactiveJmsSendingMessageHandler(final JmsTemplate jmsTemplate,
+            final String destinationName, final int batchSize,
+            final long batchTimeout, final int maxInFlight) {
+        super(jmsTemplate, destinationName, batchSize, batchTimeout);
+        Assert.isTrue(maxInFlight >= batchSize,
+            "The maximum of messages in flight must not be below the batch size");
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public String getComponentType() {
+        return "jms:reactive-outbound-channel-adapter";
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Send the messages of the publisher.
+     *
+     * @return the messages sent, each emitted once committed; an error when a
+     * batch could not be sent
+     */
+    public Flux<Message<?>> send(final Publisher<? extends Message<?>> messages) {
+        return Flux.defer(() -> {
+            final Semaphore inFlight = new Semaphore(this.maxInFlight);
+            return this
+                .batches(Flux.<Message<?>> from(messages)
+                    // Waits for permits off the thread of the publisher
+                    .publishOn(Schedulers.boundedElastic(), 1)
+                    .doOnNext(message -> inFlight.acquireUninterruptibly()))
+                .concatMapIterable(batch -> {
+                    try {
+                        this.sendBatch(batch);
+                    }
+                    finally {
+                        inFlight.release(batch.size());
+                    }
+                    return batch;
+                });
+        });
+    }
+
+    @Override
+    public void start() {
+        synchronized (this.lifecycleMonitor) {
+            if (!this.running) {
+                this.pipeline = new Pipeline();
+                this.running = true;
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this.lifecycleMonitor) {
+            if (!this.running) {
+                return;
+            }
+            this.running = false;
+            final Pipeline pipeline = this.pipeline;
+            pipeline.sink.complete();
+            try {
+                // Lets the messages accepted so far be sent
+                if (pipeline.inFlight.tryAcquire(this.maxInFlight,
+                    ReactiveJmsSendingMessageHandler.SHUTDOWN_TIMEOUT,
+                    TimeUnit.MILLISECONDS)) {
+                    pipeline.inFlight.release(this.maxInFlight);
+                }
+                else {
+                    this.logger.warn("Stopped with "
+                            + (this.maxInFlight - pipeline.inFlight.availablePermits())
+                            + " messages not sent yet");
+                }
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pipeline.subscription.dispose();
+        }
+    }
+
+    @Override
+    protected void handleMessageInternal(final Message<?> message) {
+        while (true) {
+            final Pipeline pipeline = this.pipeline;
+            if (!this.running || pipeline == null) {
+                throw new MessageDeliveryException(message,
+                    "The reactive handler is not running");
+            }
+            try {
+                pipeline.inFlight.acquire();
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MessageDeliveryException(message,
+                    "Interrupted while waiting for messages in flight", e);
+            }
+            if (pipeline == this.pipeline) {
+                pipeline.sink.next(message);
+                return;
+            }
+            // The pipeline failed while waiting, its permits were all released
+        }
+    }
+
+    private Flux<List<Message<?>>> batches(
+        final Publisher<Message<?>> messages) {
+        return Flux.from(messages)
+            .bufferTimeout(this.getBatchSize(),
+                Duration.ofMillis(this.getBatchTimeout()))
+            // Keeps requesting while a batch is sent, a timed out buffer has
+            // to be emitted right away. Bounded by the permits of the batches.
+            .onBackpressureBuffer()
+            // One batch is sent while the next one is collected
+            .publishOn(Schedulers.boundedElastic(), 1);
+    }
+
+    private void pipelineFailed(final Pipeline pipeline, final Throwable failure) {
+        synchronized (this.lifecycleMonitor) {
+            if (this.running && this.pipeline == pipeline) {
+                this.logger.error("The sending pipeline failed with "
+                        + (this.maxInFlight - pipeline.inFlight.availablePermits())
+                        + " messages not sent, they are lost; subscribing again",
+                    failure);
+                this.pipeline = new Pipeline();
+            }
+        }
+        // Wakes up the senders waiting for the failed pipeline
+        pipeline.inFlight.release(this.maxInFlight);
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.springframework.cloud.stream.binder.jms;
+
+import java.util.List;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+import org.springframework.cloud.stream.binder.jms.BatchMessageListenerContainer.BatchMessageListener;
+import org.springframework.cloud.stream.binder.jms.utils.DeadLetterPublisher;
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.support.RetryTemplate;
+
+/**
+ * Batch counterpart of {@link RetryingMessageListener}: the whole batch is
+ * retried, and every message of it is published to the dead letter queue once
+ * the attempts are exhausted.
+ */
+public class RetryingBatchMessageListener implements BatchMessageListener {
+
+    private final BatchMessageListener delegate;
+
+    private final RetryTemplate retryTemplate;
+
+    private final DeadLetterPublisher deadLetterPublisher;
+
+    private final String dlqName;
+
+    /**
+     * @param deadLetterPublisher <code>null</code> when there is no dead letter
+     * queue
+     */
+    public RetryingBatchMessageListener(
+            final BatchMessageListener delegate,
+            final RetryTemplate retryTemplate,
+            final DeadLetterPublisher deadLetterPublisher,
+            final String dlqName) {
+        this.delegate = delegate;
+        this.retryTemplate = retryTemplate;
+        this.deadLetterPublisher = deadLetterPublisher;
+        this.dlqName = dlqName;
+    }
+
+    @Override
+    public void onMessages(final List<Message> messages, final Session session)
+            throws JMSException {
+        final RecoveryCallback<Void> recoveryCallback = this.deadLetterPublisher == null
+                ? null
+                : context -> {
+                    for (final Message message : messages) {
+                        this.deadLetterPublisher.publish(message, this.dlqName,
+                            context.getLastThrowable());
+                    }
+                    return null;
+                };
+        this.retryTemplate.execute(context -> {
+            if (context.getRetryCount() > 0) {
+                for (final Message message : messages) {
+                    RetryingMessageListener.resetBody(message);
+                }
+            }
+            this.delegate.onMessages(messages, session);
+            return null;
+        }, recoveryCallback);
+    }
+
+}
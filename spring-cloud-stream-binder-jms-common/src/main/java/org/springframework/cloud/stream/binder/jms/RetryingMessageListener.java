@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.springframework.cloud.stream.binder.jms;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import javax.jms.StreamMessage;
+
+import org.springframework.cloud.stream.binder.jms.utils.DeadLetterPublisher;
+import org.springframework.jms.listener.SessionAwareMessageListener;
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.support.RetryTemplate;
+
+/**
+ * Retries a failing listener in memory, on the listener thread, instead of
+ * relying on the broker to redeliver the message.
+ * <p>
+ * Once the attempts are exhausted, the message is published to the dead
+ * letter queue when one is configured and acknowledged. Otherwise the last
+ * failure is thrown to the listener container.
+ */
+public class RetryingMessageListener implements SessionAwareMessageListener<Message> {
+
+    private final Object delegate;
+
+    private final RetryTemplate retryTemplate;
+
+    private final DeadLetterPublisher deadLetterPublisher;
+
+    private final String dlqName;
+
+    /**
+     * @param delegate a {@link MessageListener} or a
+     * {@link SessionAwareMessageListener}
+     * @param deadLetterPublisher <code>null</code> when there is no dead letter
+     * queue
+     */
+    public RetryingMessageListener(
+            final Object delegate,
+            final RetryTemplate retryTemplate,
+            final DeadLetterPublisher deadLetterPublisher,
+            final String dlqName) {
+        if (!(delegate instanceof MessageListener
+                || delegate instanceof SessionAwareMessageListener)) {
+            throw new IllegalArgumentException(
+                "Unsupported message listener type: " + delegate);
+        }
+        this.delegate = delegate;
+        this.retryTemplate = retryTemplate;
+        this.deadLetterPublisher = deadLetterPublisher;
+        this.dlqName = dlqName;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onMessage(final Message message, final Session session)
+            throws JMSException {
+        final RecoveryCallback<Void> recoveryCallback = this.deadLetterPublisher == null
+                ? null
+                : context -> {
+                    this.deadLetterPublisher.publish(message, this.dlqName,
+                        context.getLastThrowable());
+                    return null;
+                };
+        this.retryTemplate.execute(context -> {
+            if (context.getRetryCount() > 0) {
+                RetryingMessageListener.resetBody(message);
+            }
+            if (this.delegate instanceof SessionAwareMessageListener) {
+                ((SessionAwareMessageListener<Message>) this.delegate)
+                    .onMessage(message, session);
+            }
+            else {
+                ((MessageListener) this.delegate).onMessage(message);
+            }
+            return null;
+        }, recoveryCallback);
+    }
+
+    /**
+     * Rewind the body of a message the previous attempt may have read.
+     */
+    static void resetBody(final Message message) throws JMSException {
+        if (message instanceof BytesMessage) {
+            ((BytesMessage) message).reset();
+        }
+        else if (message instanceof StreamMessage) {
+            ((StreamMessage) message).reset();
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms;
+
+import org.springframework.cloud.stream.binder.jms.utils.DeadLetterPublisher;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.integration.endpoint.MessageProducerSupport;
+import org.springframework.messaging.Message;
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.support.RetryTemplate;
+
+/**
+ * Endpoint of a consumer binding receiving the messages of a
+ * {@link RoutingMessageListener} its route accepts.
+ * <p>
+ * Retries the binding's handler in memory and, once the attempts are
+ * exhausted, publishes the message to the binding's dead letter queue when
+ * there is one, like a {@link RetryingMessageListener} does for a container
+ * of its own.
+ */
+public class RoutedMessageProducer extends MessageProducerSupport {
+
+    private final RoutingMessageListener routingListener;
+
+    private final Expression route;
+
+    private final RetryTemplate retryTemplate;
+
+    private final DeadLetterPublisher deadLetterPublisher;
+
+    private final String dlqName;
+
+    // Set before the listener is told, unlike isRunning()
+    private volatile boolean active;
+
+    RoutedMessageProducer(
+            final RoutingMessageListener routingListener,
+            final Expression route,
+            final RetryTemplate retryTemplate,
+            final DeadLetterPublisher deadLetterPublisher,
+            final String dlqName) {
+        this.routingListener = routingListener;
+        this.route = route;
+        this.retryTemplate = retryTemplate;
+        this.deadLetterPublisher = deadLetterPublisher;
+        this.dlqName = dlqName;
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        this.routingListener.removeRoute(this);
+    }
+
+    @Override
+    public String getComponentType() {
+        return "jms:routed-message-driven-channel-adapter";
+    }
+
+    boolean accepts(
+        final Message<?> message,
+        final EvaluationContext evaluationContext) {
+        return Boolean.TRUE.equals(
+            this.route.getValue(evaluationContext, message, Boolean.class));
+    }
+
+    public String getRoute() {
+        return this.route.getExpressionString();
+    }
+
+    void deliver(final Message<?> message, final javax.jms.Message jmsMessage) {
+        if (this.retryTemplate == null) {
+            this.sendMessage(message);
+            return;
+        }
+        final RecoveryCallback<Void> recoveryCallback = this.deadLetterPublisher == null
+                ? null
+                : context -> {
+                    this.deadLetterPublisher.publish(jmsMessage, this.dlqName,
+                        context.getLastThrowable());
+                    return null;
+                };
+        this.retryTemplate.execute(context -> {
+            this.sendMessage(message);
+            return null;
+        }, recoveryCallback);
+    }
+
+    boolean isActive() {
+        return this.active;
+    }
+
+    @Override
+    protected void doStart() {
+        this.active = true;
+        this.routingListener.routeStateChanged();
+    }
+
+    @Override
+    protected void doStop() {
+        this.active = false;
+        this.routingListener.routeStateChanged();
+    }
+
+}
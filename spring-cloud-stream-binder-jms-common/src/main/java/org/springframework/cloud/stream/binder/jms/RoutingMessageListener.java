@@ -0,0 +1,178 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.jms.JMSException;
+import javax.jms.MessageListener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.cloud.stream.binder.jms.utils.DeadLetterPublisher;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.integration.jms.JmsHeaderMapper;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.messaging.Message;
+import org.springframework.retry.support.RetryTemplate;
+
+/**
+ * Listener of a container shared by the consumer bindings of one destination,
+ * handing each message to every binding whose route accepts it.
+ * <p>
+ * A message is converted once whatever the number of bindings, and a message
+ * no route accepts is acknowledged and dropped. Bindings fail on their own:
+ * each retries and dead letters the message with its own settings, and a
+ * message a binding could not handle is never redelivered, which would hand
+ * it again to the bindings that handled it. As a single consumer serves
+ * all the bindings, the container only runs while all of them do: stopping
+ * one binding pauses the others instead of dropping its messages. It does
+ * not start before {@link #setStartable(boolean) startable} either, so that
+ * bindings created one after the other at startup all receive the first
+ * messages.
+ */
+public class RoutingMessageListener implements MessageListener {
+
+    private final Log logger = LogFactory.getLog(this.getClass());
+
+    private final List<RoutedMessageProducer> routes = new CopyOnWriteArrayList<>();
+
+    private final ConsumerMessageListenerContainer listenerContainer;
+
+    private final JmsHeaderMapper headerMapper;
+
+    private final MessageConverter messageConverter;
+
+    private final EvaluationContext evaluationContext;
+
+    private boolean startable;
+
+    public RoutingMessageListener(
+            final ConsumerMessageListenerContainer listenerContainer,
+            final JmsHeaderMapper headerMapper,
+            final MessageConverter messageConverter,
+            final EvaluationContext evaluationContext) {
+        this.listenerContainer = listenerContainer;
+        this.headerMapper = headerMapper;
+        this.messageConverter = messageConverter;
+        this.evaluationContext = evaluationContext;
+        listenerContainer.setMessageListener(this);
+    }
+
+    /**
+     * @param retryTemplate retries of the binding, <code>null</code> for a
+     * single attempt
+     * @param deadLetterPublisher publisher of the messages the binding failed
+     * to handle, <code>null</code> to log and drop them
+     * @return the endpoint of the binding receiving the messages
+     * <code>route</code> evaluates to <code>true</code> against
+     */
+    public synchronized RoutedMessageProducer addRoute(
+        final Expression route,
+        final RetryTemplate retryTemplate,
+        final DeadLetterPublisher deadLetterPublisher,
+        final String dlqName) {
+        final RoutedMessageProducer producer = new RoutedMessageProducer(this,
+            route, retryTemplate, deadLetterPublisher, dlqName);
+        this.routes.add(producer);
+        this.applyState();
+        return producer;
+    }
+
+    public ConsumerMessageListenerContainer getListenerContainer() {
+        return this.listenerContainer;
+    }
+
+    public synchronized boolean hasRoutes() {
+        return !this.routes.isEmpty();
+    }
+
+    public synchronized void setStartable(final boolean startable) {
+        this.startable = startable;
+        this.applyState();
+    }
+
+    public synchronized void destroy() {
+        this.routes.clear();
+        this.listenerContainer.destroy();
+    }
+
+    @Override
+    public void onMessage(final javax.jms.Message jmsMessage) {
+        final Message<?> message;
+        try {
+            message = MessageBuilder
+                .withPayload(this.messageConverter.fromMessage(jmsMessage))
+                .copyHeaders(this.headerMapper.toHeaders(jmsMessage)).build();
+        }
+        catch (final JMSException e) {
+            throw JmsUtils.convertJmsAccessException(e);
+        }
+
+        boolean routed = false;
+        for (final RoutedMessageProducer route : this.routes) {
+            try {
+                if (route.accepts(message, this.evaluationContext)) {
+                    routed = true;
+                    route.deliver(message, jmsMessage);
+                }
+            }
+            catch (final RuntimeException e) {
+                this.logger.error("Route [" + route.getRoute()
+                        + "] failed to handle the message, it is dropped for it: "
+                        + message,
+                    e);
+            }
+        }
+        if (!routed && this.logger.isDebugEnabled()) {
+            this.logger.debug("Dropping message no route accepts: " + message);
+        }
+    }
+
+    synchronized void removeRoute(final RoutedMessageProducer route) {
+        this.routes.remove(route);
+        this.applyState();
+    }
+
+    synchronized void routeStateChanged() {
+        this.applyState();
+    }
+
+    /**
+     * Must be called holding the monitor.
+     */
+    private void applyState() {
+        boolean shouldRun = this.startable && !this.routes.isEmpty();
+        for (final RoutedMessageProducer route : this.routes) {
+            shouldRun &= route.isActive();
+        }
+        if (shouldRun && !this.listenerContainer.isRunning()) {
+            if (!this.listenerContainer.isActive()) {
+                this.listenerContainer.afterPropertiesSet();
+            }
+            this.listenerContainer.start();
+        }
+        else if (!shouldRun && this.listenerContainer.isRunning()) {
+            this.listenerContainer.stop();
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.integration.StaticMessageHeaderAccessor;
+import org.springframework.integration.jms.DefaultJmsHeaderMapper;
+import org.springframework.integration.jms.JmsHeaderMapper;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
+
+/**
+ * Sends a message to several queues in parallel, all or nothing.
+ * <p>
+ * Every queue is sent to on its own transacted session from the given
+ * executor. The sessions are committed only once every send succeeded,
+ * otherwise all of them are rolled back. Latency therefore follows the slowest
+ * queue instead of the sum of all queues. Connections are obtained for every
+ * message, so the connection factory is expected to cache them.
+ * <p>
+ * The commits themselves are not atomic: should a broker fail while
+ * committing, queues committed before the failure keep the message.
+ */
+public class TransactedFanOutMessageHandler implements MessageHandler {
+
+    private final Log logger = LogFactory.getLog(this.getClass());
+
+    private final ConnectionFactory connectionFactory;
+
+    private final String[] queueNames;
+
+    private final JmsTemplate jmsTemplate;
+
+    private final Executor executor;
+
+    private JmsHeaderMapper headerMapper = new DefaultJmsHeaderMapper();
+
+    public TransactedFanOutMessageHandler(
+            final ConnectionFactory connectionFactory,
+            final String[] queueNames, final JmsTemplate jmsTemplate,
+            final Executor executor) {
+        Assert.notEmpty(queueNames, "At least one queue is required");
+        this.connectionFactory = connectionFactory;
+        this.queueNames = queueNames;
+        this.jmsTemplate = jmsTemplate;
+        this.executor = executor;
+    }
+
+    @Override
+    public void handleMessage(final Message<?> message)
+            throws MessagingException {
+        Connection connection = null;
+        try {
+            connection = this.connectionFactory.createConnection();
+            this.send(connection, message);
+        }
+        catch (final JMSException e) {
+            throw new MessageDeliveryException(message,
+                "Failed to obtain a connection for fan-out", e);
+        }
+        finally {
+            JmsUtils.closeConnection(connection);
+        }
+    }
+
+    public void setHeaderMapper(final JmsHeaderMapper headerMapper) {
+        Assert.notNull(headerMapper, "'headerMapper' cannot be null");
+        this.headerMapper = headerMapper;
+    }
+
+    private void send(final Connection connection, final Message<?> message) {
+        final List<CompletableFuture<Session>> sends = new ArrayList<>(
+            this.queueNames.length);
+        for (final String queueName : this.queueNames) {
+            sends.add(
+                CompletableFuture.supplyAsync(
+                    () -> this.prepare(connection, queueName, message),
+                    this.executor));
+        }
+
+        final List<Session> prepared = new ArrayList<>(sends.size());
+        Throwable failure = null;
+        for (final CompletableFuture<Session> send : sends) {
+            try {
+                prepared.add(send.join());
+            }
+            catch (final CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+                else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+
+        try {
+            if (failure != null) {
+                prepared.forEach(this::rollback);
+                throw new MessageDeliveryException(message,
+                    "Fan-out send failed, the message was rolled back on all queues",
+                    failure);
+            }
+            for (final Session session : prepared) {
+                try {
+                    JmsUtils.commitIfNecessary(session);
+                }
+                catch (final JMSException e) {
+                    throw new MessageDeliveryException(message,
+                        "Fan-out commit failed, the message may have reached some of the queues",
+                        e);
+                }
+            }
+        }
+        finally {
+            prepared.forEach(JmsUtils::closeSession);
+        }
+    }
+
+    private Session prepare(
+        final Connection connection,
+        final String queueName,
+        final Message<?> message) {
+        Session session = null;
+        try {
+            session = connection.createSession(true, Session.SESSION_TRANSACTED);
+            final Destination destination = this.jmsTemplate
+                .getDestinationResolver()
+                .resolveDestinationName(session, queueName, false);
+            final MessageProducer producer = session.createProducer(destination);
+            try {
+                final javax.jms.Message jmsMessage = this.jmsTemplate
+                    .getMessageConverter()
+                    .toMessage(message.getPayload(), session);
+                this.headerMapper.fromHeaders(message.getHeaders(), jmsMessage);
+                if (this.jmsTemplate.isExplicitQosEnabled()) {
+                    // The priority header takes precedence, as with JmsSendingMessageHandler
+                    final Integer priority = StaticMessageHeaderAccessor
+                        .getPriority(message);
+                    producer.send(
+                        jmsMessage,
+                        this.jmsTemplate.getDeliveryMode(),
+                        priority != null ? priority : this.jmsTemplate.getPriority(),
+                        this.jmsTemplate.getTimeToLive());
+                }
+                else {
+                    producer.send(jmsMessage);
+                }
+            }
+            finally {
+                JmsUtils.closeMessageProducer(producer);
+            }
+            return session;
+        }
+        catch (final JMSException | RuntimeException e) {
+            if (session != null) {
+                this.rollback(session);
+                JmsUtils.closeSession(session);
+            }
+            throw new CompletionException(e);
+        }
+    }
+
+    private void rollback(final Session session) {
+        try {
+            JmsUtils.rollbackIfNecessary(session);
+        }
+        catch (final JMSException e) {
+            this.logger.debug("Could not roll back fan-out session", e);
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.claimcheck;
+
+import java.util.function.Supplier;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+import org.springframework.cloud.stream.binder.jms.utils.SpecCompliantJmsHeaderMapper;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.util.Assert;
+
+/**
+ * {@link MessageConverter} of consumer bindings fetching the payloads put into
+ * a {@link PayloadStore} by a {@link ClaimCheckMessageHandler}.
+ * <p>
+ * The payload is only fetched once the message is converted for its handler,
+ * not when the broker delivers it, and the store is only looked up for the
+ * first message carrying a {@link SpecCompliantJmsHeaderMapper#CLAIM_CHECK}
+ * property.
+ */
+public class ClaimCheckMessageConverter implements MessageConverter {
+
+    private final MessageConverter delegate;
+
+    private final Supplier<PayloadStore> payloadStore;
+
+    public ClaimCheckMessageConverter(
+            final MessageConverter delegate,
+            final Supplier<PayloadStore> payloadStore) {
+        Assert.notNull(delegate, "The delegate converter must not be null");
+        this.delegate = delegate;
+        this.payloadStore = payloadStore;
+    }
+
+    @Override
+    public Object fromMessage(final Message message)
+            throws JMSException, MessageConversionException {
+        final String reference = message
+            .getStringProperty(SpecCompliantJmsHeaderMapper.CLAIM_CHECK);
+        if (reference == null) {
+            return this.delegate.fromMessage(message);
+        }
+        try {
+            return this.payloadStore.get().fetch(reference);
+        }
+        catch (final RuntimeException e) {
+            throw new MessageConversionException(
+                "Could not fetch the payload of message "
+                        + message.getJMSMessageID(),
+                e);
+        }
+    }
+
+    @Override
+    public Message toMessage(final Object object, final Session session)
+            throws JMSException, MessageConversionException {
+        return this.delegate.toMessage(object, session);
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.claimcheck;
+
+import org.springframework.cloud.stream.binder.jms.utils.DelegatingMessageHandler;
+import org.springframework.cloud.stream.binder.jms.utils.SpecCompliantJmsHeaderMapper;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
+
+/**
+ * Puts the <code>byte[]</code> payloads of at least <code>threshold</code>
+ * bytes into a {@link PayloadStore} and hands the handler of a producer
+ * binding a message with an empty payload instead.
+ * <p>
+ * The reference of the stored payload is carried by the
+ * {@link SpecCompliantJmsHeaderMapper#CLAIM_CHECK} header. A reference left
+ * over from a consumed message is removed, so that the header always
+ * describes the payload sent.
+ */
+public class ClaimCheckMessageHandler extends DelegatingMessageHandler {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final PayloadStore payloadStore;
+
+    private final int threshold;
+
+    public ClaimCheckMessageHandler(
+            final MessageHandler delegate,
+            final PayloadStore payloadStore,
+            final int threshold) {
+        super(delegate);
+        Assert.notNull(payloadStore, "The payload store must not be null");
+        this.payloadStore = payloadStore;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void handleMessage(final Message<?> message)
+            throws MessagingException {
+        this.getDelegate().handleMessage(this.checkIn(message));
+    }
+
+    private Message<?> checkIn(final Message<?> message) {
+        final Object payload = message.getPayload();
+        if (payload instanceof byte[]
+                && ((byte[]) payload).length >= this.threshold) {
+            final String reference = this.payloadStore
+                .store((byte[]) payload);
+            return MessageBuilder.withPayload(ClaimCheckMessageHandler.EMPTY)
+                .copyHeaders(message.getHeaders())
+                .setHeader(SpecCompliantJmsHeaderMapper.CLAIM_CHECK, reference)
+                .build();
+        }
+        if (message.getHeaders()
+            .containsKey(SpecCompliantJmsHeaderMapper.CLAIM_CHECK)) {
+            return MessageBuilder.fromMessage(message)
+                .removeHeader(SpecCompliantJmsHeaderMapper.CLAIM_CHECK)
+                .build();
+        }
+        return message;
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.claimcheck;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cloud.stream.binder.jms.utils.AnonymousNamingStrategy;
+import org.springframework.cloud.stream.binder.jms.utils.Base64UrlNamingStrategy;
+
+/**
+ * {@link PayloadStore} keeping every payload in a file of a directory, which
+ * has to be shared by producers and consumers running on different hosts.
+ * <p>
+ * A payload is written to a temporary file first and then renamed, so that
+ * it is never read half written. Payloads older than the retention are
+ * deleted once a minute on a thread of the store, started by
+ * {@link #afterPropertiesSet()}. References are generated like anonymous
+ * group names, without waiting on a {@link java.security.SecureRandom}.
+ */
+public class FileSystemPayloadStore
+        implements PayloadStore, InitializingBean, DisposableBean {
+
+    private static final long PURGE_INTERVAL = 60000;
+
+    private static final Pattern REFERENCE = Pattern
+        .compile("[A-Za-z0-9$_]{22}");
+
+    private final Log logger = LogFactory.getLog(this.getClass());
+
+    private final Path directory;
+
+    private final long retention;
+
+    private final AnonymousNamingStrategy referenceNamingStrategy = new Base64UrlNamingStrategy(
+        "");
+
+    private ScheduledExecutorService purger;
+
+    /**
+     * @param retention milliseconds a payload is kept, a value &lt;= 0 keeps
+     * them forever
+     */
+    public FileSystemPayloadStore(final Path directory, final long retention) {
+        try {
+            this.directory = Files.createDirectories(directory);
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(
+                "Could not create the payload directory " + directory, e);
+        }
+        this.retention = retention;
+    }
+
+    @Override
+    public synchronized void afterPropertiesSet() {
+        if (this.retention > 0 && this.purger == null) {
+            this.purger = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "jms-binder-payload-purger");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.purger.scheduleWithFixedDelay(
+                this::purge,
+                0,
+                FileSystemPayloadStore.PURGE_INTERVAL,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (this.purger != null) {
+            this.purger.shutdownNow();
+            this.purger = null;
+        }
+    }
+
+    @Override
+    public byte[] fetch(final String reference) {
+        final Path file = this.resolve(reference);
+        try {
+            return Files.readAllBytes(file);
+        }
+        catch (final NoSuchFileException e) {
+            throw new IllegalStateException("There is no payload " + reference
+                    + ", it may have expired",
+                e);
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(
+                "Could not read the payload " + reference, e);
+        }
+    }
+
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    @Override
+    public String store(final byte[] payload) {
+        final String reference = this.referenceNamingStrategy.generateName();
+        final Path file = this.directory.resolve(reference);
+        final Path temporary = this.directory.resolve(reference + ".tmp");
+        try {
+            Files.write(temporary, payload);
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final IOException e) {
+            try {
+                Files.deleteIfExists(temporary);
+            }
+            catch (final IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new UncheckedIOException("Could not store a payload of "
+                    + payload.length + " bytes in " + this.directory,
+                e);
+        }
+        return reference;
+    }
+
+    private void purge() {
+        final long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> files = Files
+            .newDirectoryStream(this.directory)) {
+            for (final Path file : files) {
+                try {
+                    if (now - Files.getLastModifiedTime(file)
+                        .toMillis() > this.retention) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+                catch (final NoSuchFileException e) {
+                    // Renamed once written, or deleted by another host
+                }
+            }
+        }
+        // Would end the scheduled purges otherwise
+        catch (final IOException | RuntimeException e) {
+            this.logger.warn(
+                "Could not delete expired payloads from " + this.directory, e);
+        }
+    }
+
+    /**
+     * References come from received messages, they must not point anywhere
+     * else than the directory.
+     */
+    private Path resolve(final String reference) {
+        if (reference == null
+                || !FileSystemPayloadStore.REFERENCE.matcher(reference).matches()) {
+            throw new IllegalArgumentException(
+                "Invalid payload reference '" + reference + "'");
+        }
+        return this.directory.resolve(reference);
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.claimcheck;
+
+/**
+ * Keeps the payloads too large to be sent through the broker, handing out a
+ * reference sent in their place.
+ * <p>
+ * Producers and consumers of a destination must share the store. As every
+ * consumer group reads the same payload, payloads are not deleted when
+ * consumed; stores are expected to expire them.
+ *
+ * @see FileSystemPayloadStore
+ */
+public interface PayloadStore {
+
+    /**
+     * @return the reference the payload can be fetched with
+     */
+    String store(byte[] payload);
+
+    /**
+     * @throws IllegalStateException when there is no payload for the
+     * reference, e.g. because it expired
+     */
+    byte[] fetch(String reference);
+
+}
@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.compression;
+
+import org.springframework.cloud.stream.binder.jms.utils.DelegatingMessageHandler;
+import org.springframework.cloud.stream.binder.jms.utils.SpecCompliantJmsHeaderMapper;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
+
+/**
+ * Compresses the <code>byte[]</code> payloads of at least
+ * <code>threshold</code> bytes before handing them to the handler of a
+ * producer binding.
+ * <p>
+ * A compressed message carries the name of its codec in the
+ * {@link SpecCompliantJmsHeaderMapper#COMPRESSION} header. Payloads that do not
+ * shrink are sent as they are, and a marker left over from a consumed message
+ * is removed, so that the header always describes the payload sent.
+ */
+public class CompressingMessageHandler extends DelegatingMessageHandler {
+
+    private final CompressionCodec codec;
+
+    private final int threshold;
+
+    public CompressingMessageHandler(
+            final MessageHandler delegate,
+            final CompressionCodec codec,
+            final int threshold) {
+        super(delegate);
+        Assert.notNull(codec, "The compression codec must not be null");
+        this.codec = codec;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void handleMessage(final Message<?> message)
+            throws MessagingException {
+        this.getDelegate().handleMessage(this.compress(message));
+    }
+
+    private Message<?> compress(final Message<?> message) {
+        final Object payload = message.getPayload();
+        if (payload instanceof byte[]
+                && ((byte[]) payload).length >= this.threshold) {
+            final byte[] compressed = this.codec.compress((byte[]) payload);
+            if (compressed.length < ((byte[]) payload).length) {
+                return MessageBuilder.withPayload(compressed)
+                    .copyHeaders(message.getHeaders())
+                    .setHeader(SpecCompliantJmsHeaderMapper.COMPRESSION,
+                        this.codec.getName())
+                    .build();
+            }
+        }
+        if (message.getHeaders()
+            .containsKey(SpecCompliantJmsHeaderMapper.COMPRESSION)) {
+            return MessageBuilder.fromMessage(message)
+                .removeHeader(SpecCompliantJmsHeaderMapper.COMPRESSION)
+                .build();
+        }
+        return message;
+    }
+
+}
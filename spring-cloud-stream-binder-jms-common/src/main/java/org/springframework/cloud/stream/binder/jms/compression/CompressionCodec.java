@@ -0,0 +1,40 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.compression;
+
+/**
+ * Compresses the payloads of producer bindings and restores them on the
+ * consumer side.
+ * <p>
+ * The codec of a compressed message is recorded by its name in the
+ * {@link org.springframework.cloud.stream.binder.jms.utils.SpecCompliantJmsHeaderMapper#COMPRESSION}
+ * property, so the consuming application needs a codec of the same name.
+ *
+ * @see DeflateCompressionCodec
+ */
+public interface CompressionCodec {
+
+    /**
+     * @return the name bindings select the codec by
+     */
+    String getName();
+
+    byte[] compress(byte[] data);
+
+    byte[] decompress(byte[] data);
+
+}
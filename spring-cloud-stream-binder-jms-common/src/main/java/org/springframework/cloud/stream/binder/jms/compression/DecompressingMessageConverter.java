@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.compression;
+
+import java.util.Map;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+import org.springframework.cloud.stream.binder.jms.utils.SpecCompliantJmsHeaderMapper;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.util.Assert;
+
+/**
+ * {@link MessageConverter} of consumer bindings restoring the payloads
+ * compressed by a {@link CompressingMessageHandler}.
+ * <p>
+ * Messages without the {@link SpecCompliantJmsHeaderMapper#COMPRESSION}
+ * property are converted by the delegate only, so compressed and plain
+ * messages can share a destination.
+ */
+public class DecompressingMessageConverter implements MessageConverter {
+
+    private final MessageConverter delegate;
+
+    private final Map<String, CompressionCodec> codecs;
+
+    /**
+     * @param codecs the codecs by their name
+     */
+    public DecompressingMessageConverter(
+            final MessageConverter delegate,
+            final Map<String, CompressionCodec> codecs) {
+        Assert.notNull(delegate, "The delegate converter must not be null");
+        this.delegate = delegate;
+        this.codecs = codecs;
+    }
+
+    @Override
+    public Object fromMessage(final Message message)
+            throws JMSException, MessageConversionException {
+        final Object payload = this.delegate.fromMessage(message);
+        final String codecName = message
+            .getStringProperty(SpecCompliantJmsHeaderMapper.COMPRESSION);
+        if (codecName == null) {
+            return payload;
+        }
+        final CompressionCodec codec = this.codecs.get(codecName);
+        if (codec == null) {
+            throw new MessageConversionException(
+                "No compression codec named '" + codecName + "'");
+        }
+        if (!(payload instanceof byte[])) {
+            throw new MessageConversionException("Compressed message "
+                    + message.getJMSMessageID() + " has no bytes payload");
+        }
+        try {
+            return codec.decompress((byte[]) payload);
+        }
+        catch (final RuntimeException e) {
+            throw new MessageConversionException(
+                "Could not decompress message " + message.getJMSMessageID()
+                        + " with '" + codecName + "'",
+                e);
+        }
+    }
+
+    @Override
+    public Message toMessage(final Object object, final Session session)
+            throws JMSException, MessageConversionException {
+        return this.delegate.toMessage(object, session);
+    }
+
+}
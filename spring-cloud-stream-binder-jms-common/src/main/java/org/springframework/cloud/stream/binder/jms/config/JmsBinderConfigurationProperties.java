@@ -0,0 +1,269 @@
+/*
+ *  Copyright 2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.springframework.cloud.stream.binder.jms.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Binder wide settings, as opposed to the per binding
+ * {@link JmsExtendedBindingProperties}.
+ */
+@ConfigurationProperties("spring.cloud.stream.jms.binder")
+public class JmsBinderConfigurationProperties {
+
+    private boolean cacheSessions = true;
+
+    private int sessionCacheSize = 10;
+
+    private boolean cacheProducers = true;
+
+    private long sessionIdleTimeout = 60000;
+
+    private int deadLetterPoolSize = 1;
+
+    private int deadLetterQueueCapacity = 1000;
+
+    private int deadLetterStackTraceBytes = 8192;
+
+    private int deadLetterStackTraceDepth = 20;
+
+    private int fanOutPoolSize = 8;
+
+    private int fanOutQueueCapacity = 256;
+
+    private boolean parallelStartup = false;
+
+    private boolean producerAsyncSend = false;
+
+    private int producerWindowSize = 0;
+
+    private int startupPoolSize = 4;
+
+    private long startupTimeout = 60000;
+
+    private boolean virtualThreads = false;
+
+    private String claimCheckDirectory = System.getProperty("java.io.tmpdir")
+            + "/spring-cloud-stream-jms-claim-check";
+
+    private long claimCheckRetention = 604800000;
+
+    /**
+     * Threads shared by all consumers publishing failed messages to their
+     * dead letter queue.
+     */
+    public int getDeadLetterPoolSize() {
+        return this.deadLetterPoolSize;
+    }
+
+    /**
+     * Failed messages waiting to be published beyond which the listener
+     * thread publishes them itself.
+     */
+    public int getDeadLetterQueueCapacity() {
+        return this.deadLetterQueueCapacity;
+    }
+
+    /**
+     * Size in bytes the stack trace header of dead letter messages is cut to.
+     */
+    public int getDeadLetterStackTraceBytes() {
+        return this.deadLetterStackTraceBytes;
+    }
+
+    /**
+     * Frames rendered for each exception in the stack trace header of dead
+     * letter messages.
+     */
+    public int getDeadLetterStackTraceDepth() {
+        return this.deadLetterStackTraceDepth;
+    }
+
+    /**
+     * Threads shared by all producers sending to their queues in parallel.
+     */
+    public int getFanOutPoolSize() {
+        return this.fanOutPoolSize;
+    }
+
+    /**
+     * Pending parallel sends beyond which the sending thread performs the send
+     * itself.
+     */
+    public int getFanOutQueueCapacity() {
+        return this.fanOutQueueCapacity;
+    }
+
+    /**
+     * Bytes of asynchronously sent messages not yet acknowledged by the broker
+     * beyond which a send blocks. A value &lt;= 0 does not limit them.
+     */
+    public int getProducerWindowSize() {
+        return this.producerWindowSize;
+    }
+
+    public int getSessionCacheSize() {
+        return this.sessionCacheSize;
+    }
+
+    /**
+     * Milliseconds without any send after which the cached producer sessions
+     * and their connection are released. A value &lt;= 0 keeps them open.
+     */
+    public long getSessionIdleTimeout() {
+        return this.sessionIdleTimeout;
+    }
+
+    /**
+     * Threads provisioning and starting consumer bindings when
+     * <code>parallelStartup</code> is enabled.
+     */
+    public int getStartupPoolSize() {
+        return this.startupPoolSize;
+    }
+
+    /**
+     * Milliseconds the application startup waits for the consumer bindings
+     * started in parallel before it fails.
+     */
+    public long getStartupTimeout() {
+        return this.startupTimeout;
+    }
+
+    public boolean isCacheProducers() {
+        return this.cacheProducers;
+    }
+
+    /**
+     * Whether producer bindings share cached connection, sessions and
+     * producers instead of opening them for every send.
+     */
+    public boolean isCacheSessions() {
+        return this.cacheSessions;
+    }
+
+    /**
+     * Whether consumer bindings are provisioned and started on a pool rather
+     * than one after the other.
+     */
+    public boolean isParallelStartup() {
+        return this.parallelStartup;
+    }
+
+    /**
+     * Whether the cached producer connection sends persistent messages
+     * without waiting for the broker to acknowledge them.
+     */
+    public boolean isProducerAsyncSend() {
+        return this.producerAsyncSend;
+    }
+
+    /**
+     * Whether consumers and the binder's own pools run on virtual threads,
+     * when the JVM supports them.
+     */
+    public boolean isVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+    /**
+     * Directory of the default payload store, shared by the producers and
+     * consumers of claim checked messages.
+     */
+    public String getClaimCheckDirectory() {
+        return this.claimCheckDirectory;
+    }
+
+    /**
+     * Milliseconds payloads are kept in the default payload store, 0 to keep
+     * them forever.
+     */
+    public long getClaimCheckRetention() {
+        return this.claimCheckRetention;
+    }
+
+    public void setCacheProducers(final boolean cacheProducers) {
+        this.cacheProducers = cacheProducers;
+    }
+
+    public void setCacheSessions(final boolean cacheSessions) {
+        this.cacheSessions = cacheSessions;
+    }
+
+    public void setClaimCheckDirectory(final String claimCheckDirectory) {
+        this.claimCheckDirectory = claimCheckDirectory;
+    }
+
+    public void setClaimCheckRetention(final long claimCheckRetention) {
+        this.claimCheckRetention = claimCheckRetention;
+    }
+
+    public void setDeadLetterPoolSize(final int deadLetterPoolSize) {
+        this.deadLetterPoolSize = deadLetterPoolSize;
+    }
+
+    public void setDeadLetterQueueCapacity(final int deadLetterQueueCapacity) {
+        this.deadLetterQueueCapacity = deadLetterQueueCapacity;
+    }
+
+    public void setDeadLetterStackTraceBytes(final int deadLetterStackTraceBytes) {
+        this.deadLetterStackTraceBytes = deadLetterStackTraceBytes;
+    }
+
+    public void setDeadLetterStackTraceDepth(final int deadLetterStackTraceDepth) {
+        this.deadLetterStackTraceDepth = deadLetterStackTraceDepth;
+    }
+
+    public void setFanOutPoolSize(final int fanOutPoolSize) {
+        this.fanOutPoolSize = fanOutPoolSize;
+    }
+
+    public void setFanOutQueueCapacity(final int fanOutQueueCapacity) {
+        this.fanOutQueueCapacity = fanOutQueueCapacity;
+    }
+
+    public void setParallelStartup(final boolean parallelStartup) {
+        this.parallelStartup = parallelStartup;
+    }
+
+    public void setProducerAsyncSend(final boolean producerAsyncSend) {
+        this.producerAsyncSend = producerAsyncSend;
+    }
+
+    public void setProducerWindowSize(final int producerWindowSize) {
+        this.producerWindowSize = producerWindowSize;
+    }
+
+    public void setSessionCacheSize(final int sessionCacheSize) {
+        this.sessionCacheSize = sessionCacheSize;
+    }
+
+    public void setSessionIdleTimeout(final long sessionIdleTimeout) {
+        this.sessionIdleTimeout = sessionIdleTimeout;
+    }
+
+    public void setStartupPoolSize(final int startupPoolSize) {
+        this.startupPoolSize = startupPoolSize;
+    }
+
+    public void setStartupTimeout(final long startupTimeout) {
+        this.startupTimeout = startupTimeout;
+    }
+
+    public void setVirtualThreads(final boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+}
@@ -15,5 +15,287 @@
  */
 package org.springframework.cloud.stream.binder.jms.config;
 
+import javax.jms.Session;
+
+import org.springframework.cloud.stream.binder.jms.ConsumerMessageListenerContainer;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
 public class JmsConsumerProperties extends JmsCommonProperties {
+
+    /**
+     * How the sessions of a non transacted consumer acknowledge messages.
+     */
+    public enum AcknowledgeMode {
+        /**
+         * Each message once its listener returned.
+         */
+        AUTO(Session.AUTO_ACKNOWLEDGE),
+        /**
+         * Everything consumed on the session once a listener succeeded.
+         */
+        CLIENT(Session.CLIENT_ACKNOWLEDGE),
+        /**
+         * Lazily, duplicates may be delivered after a failure.
+         */
+        DUPS_OK(Session.DUPS_OK_ACKNOWLEDGE),
+        /**
+         * Each message once its listener succeeded, ActiveMQ only.
+         */
+        INDIVIDUAL(ConsumerMessageListenerContainer.INDIVIDUAL_ACKNOWLEDGE);
+
+        private final int mode;
+
+        AcknowledgeMode(final int mode) {
+            this.mode = mode;
+        }
+
+        public int getMode() {
+            return this.mode;
+        }
+    }
+
+    /**
+     * JMS resources the listener container keeps open between receives.
+     */
+    public enum CacheLevel {
+        NONE(DefaultMessageListenerContainer.CACHE_NONE),
+        CONNECTION(DefaultMessageListenerContainer.CACHE_CONNECTION),
+        SESSION(DefaultMessageListenerContainer.CACHE_SESSION),
+        CONSUMER(DefaultMessageListenerContainer.CACHE_CONSUMER),
+        AUTO(DefaultMessageListenerContainer.CACHE_AUTO);
+
+        private final int level;
+
+        CacheLevel(final int level) {
+            this.level = level;
+        }
+
+        public int getLevel() {
+            return this.level;
+        }
+    }
+
+    private AcknowledgeMode acknowledgeMode = AcknowledgeMode.AUTO;
+
+    private boolean optimizeAcknowledge = false;
+
+    private Boolean transacted;
+
+    private CacheLevel cacheLevel;
+
+    private long receiveTimeout = DefaultMessageListenerContainer.DEFAULT_RECEIVE_TIMEOUT;
+
+    private int prefetch = 0;
+
+    private int batchSize = 10;
+
+    private long batchTimeout = 1000;
+
+    private String dlqName;
+
+    private int maxConcurrency = 1;
+
+    private int idleConsumerLimit = 1;
+
+    private int idleTaskExecutionLimit = 1;
+
+    private int maxMessagesPerTask = 0;
+
+    private boolean reactive = false;
+
+    private String route;
+
+    private String selector;
+
+    /**
+     * How messages are acknowledged when the session is not transacted.
+     */
+    public AcknowledgeMode getAcknowledgeMode() {
+        return this.acknowledgeMode;
+    }
+
+    /**
+     * Maximum number of messages in one batch when the binding consumes in
+     * <code>batchMode</code>.
+     */
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /**
+     * Maximum milliseconds spent collecting a batch once its first message was
+     * received; the batch is delivered as is when the time is up.
+     */
+    public long getBatchTimeout() {
+        return this.batchTimeout;
+    }
+
+    /**
+     * JMS resources kept open between receives. When not set, the container
+     * caches consumers, or the minimum the binding requires.
+     */
+    public CacheLevel getCacheLevel() {
+        return this.cacheLevel;
+    }
+
+    /**
+     * Queue failed messages are published to once the binding's
+     * <code>maxAttempts</code> are exhausted. When not set, the last failure is
+     * left to the listener container and the broker's redelivery policy.
+     */
+    public String getDlqName() {
+        return this.dlqName;
+    }
+
+    public int getIdleConsumerLimit() {
+        return this.idleConsumerLimit;
+    }
+
+    public int getIdleTaskExecutionLimit() {
+        return this.idleTaskExecutionLimit;
+    }
+
+    /**
+     * Upper bound of concurrent consumers. When greater than the binding's
+     * <code>concurrency</code>, the listener container adds consumers while
+     * there is a backlog and releases them again once they become idle.
+     */
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    /**
+     * Number of receive attempts a consumer task performs before it is
+     * rescheduled. A value &lt;= 0 lets the binder decide: consumers run
+     * until the container stops, unless the binding scales between
+     * <code>concurrency</code> and <code>maxConcurrency</code>.
+     */
+    public int getMaxMessagesPerTask() {
+        return this.maxMessagesPerTask;
+    }
+
+    /**
+     * Messages the broker pushes to each consumer ahead of time. A value
+     * &lt;= 0 keeps the broker's or the connection's default. Applied as a
+     * destination option by providers supporting it.
+     */
+    public int getPrefetch() {
+        return this.prefetch;
+    }
+
+    /**
+     * Milliseconds a receive waits for a message before the consumer checks
+     * whether it should keep running.
+     */
+    public long getReceiveTimeout() {
+        return this.receiveTimeout;
+    }
+
+    /**
+     * Whether consumer connections acknowledge <code>AUTO</code> messages in
+     * batches, as supported by ActiveMQ.
+     */
+    public boolean isOptimizeAcknowledge() {
+        return this.optimizeAcknowledge;
+    }
+
+    /**
+     * Whether messages are received as they are requested by a reactive
+     * subscription instead of by a listener container.
+     */
+    public boolean isReactive() {
+        return this.reactive;
+    }
+
+    /**
+     * SpEL expression evaluated against each message of a listener container
+     * shared with the other routed bindings of the same destination and
+     * group, the binding receiving the messages it is <code>true</code> for.
+     * <code>null</code> gives the binding its own container.
+     */
+    public String getRoute() {
+        return this.route;
+    }
+
+    /**
+     * JMS message selector evaluated by the broker, only the messages it
+     * matches being delivered to the binding. Not supported with a
+     * {@link #getRoute() route}.
+     */
+    public String getSelector() {
+        return this.selector;
+    }
+
+    /**
+     * Whether messages are consumed in a local transaction, committed once
+     * the listener succeeded and rolled back otherwise. When not set, only
+     * <code>batchMode</code> bindings are transacted.
+     */
+    public Boolean getTransacted() {
+        return this.transacted;
+    }
+
+    public void setAcknowledgeMode(final AcknowledgeMode acknowledgeMode) {
+        this.acknowledgeMode = acknowledgeMode;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setBatchTimeout(final long batchTimeout) {
+        this.batchTimeout = batchTimeout;
+    }
+
+    public void setCacheLevel(final CacheLevel cacheLevel) {
+        this.cacheLevel = cacheLevel;
+    }
+
+    public void setDlqName(final String dlqName) {
+        this.dlqName = dlqName;
+    }
+
+    public void setIdleConsumerLimit(final int idleConsumerLimit) {
+        this.idleConsumerLimit = idleConsumerLimit;
+    }
+
+    public void setIdleTaskExecutionLimit(final int idleTaskExecutionLimit) {
+        this.idleTaskExecutionLimit = idleTaskExecutionLimit;
+    }
+
+    public void setMaxConcurrency(final int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public void setMaxMessagesPerTask(final int maxMessagesPerTask) {
+        this.maxMessagesPerTask = maxMessagesPerTask;
+    }
+
+    public void setOptimizeAcknowledge(final boolean optimizeAcknowledge) {
+        this.optimizeAcknowledge = optimizeAcknowledge;
+    }
+
+    public void setPrefetch(final int prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    public void setReactive(final boolean reactive) {
+        this.reactive = reactive;
+    }
+
+    public void setReceiveTimeout(final long receiveTimeout) {
+        this.receiveTimeout = receiveTimeout;
+    }
+
+    public void setRoute(final String route) {
+        this.route = route;
+    }
+
+    public void setSelector(final String selector) {
+        this.selector = selector;
+    }
+
+    public void setTransacted(final Boolean transacted) {
+        this.transacted = transacted;
+    }
 }
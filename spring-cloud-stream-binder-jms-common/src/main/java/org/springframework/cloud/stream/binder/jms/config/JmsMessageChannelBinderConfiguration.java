@@ -12,34 +12,120 @@
  */
 package org.springframework.cloud.stream.binder.jms.config;
 
+import java.util.stream.Collectors;
+
 import javax.jms.ConnectionFactory;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.stream.binder.ExtendedBindingProperties;
 import org.springframework.cloud.stream.binder.ExtendedConsumerProperties;
 import org.springframework.cloud.stream.binder.ExtendedProducerProperties;
 import org.springframework.cloud.stream.binder.jms.JMSMessageChannelBinder;
+import org.springframework.cloud.stream.binder.jms.claimcheck.PayloadStore;
+import org.springframework.cloud.stream.binder.jms.compression.CompressionCodec;
+import org.springframework.cloud.stream.binder.jms.metrics.BindingMetrics;
+import org.springframework.cloud.stream.binder.jms.metrics.MeteredProvisioningProvider;
+import org.springframework.cloud.stream.binder.jms.metrics.MicrometerBindingMetrics;
+import org.springframework.cloud.stream.binder.jms.provisioning.ParallelProvisioningProvider;
+import org.springframework.cloud.stream.binder.jms.utils.ParallelBindingStarter;
+import org.springframework.cloud.stream.binder.jms.utils.ProducerCachingConnectionFactory;
+import org.springframework.cloud.stream.binder.jms.utils.VirtualThreads;
 import org.springframework.cloud.stream.provisioning.ProvisioningProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jms.core.JmsTemplate;
 
 @Configuration
-@EnableConfigurationProperties(JmsExtendedBindingProperties.class)
+@EnableConfigurationProperties({ JmsExtendedBindingProperties.class,
+    JmsBinderConfigurationProperties.class })
 public class JmsMessageChannelBinderConfiguration {
 
+    /**
+     * Bindings are instrumented when Micrometer is on the classpath and the
+     * application has a {@link MeterRegistry}.
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    static class MetricsConfiguration {
+
+        @Bean
+        @ConditionalOnBean(MeterRegistry.class)
+        BindingMetrics jmsBindingMetrics(final MeterRegistry meterRegistry) {
+            return new MicrometerBindingMetrics(meterRegistry);
+        }
+
+    }
+
     @Bean
     JMSMessageChannelBinder jmsMessageChannelBinder(
         final JmsTemplate jmsTemplate,
         final ConnectionFactory connectionFactory,
         final ExtendedBindingProperties<JmsConsumerProperties, JmsProducerProperties> jmsExtendedBindingProperties,
-        final ProvisioningProvider<ExtendedConsumerProperties<JmsConsumerProperties>, ExtendedProducerProperties<JmsProducerProperties>> provisioningProvider)
+        final JmsBinderConfigurationProperties jmsBinderConfigurationProperties,
+        final ProvisioningProvider<ExtendedConsumerProperties<JmsConsumerProperties>, ExtendedProducerProperties<JmsProducerProperties>> provisioningProvider,
+        final ObjectProvider<BindingMetrics> bindingMetricsProvider,
+        final ObjectProvider<CompressionCodec> compressionCodecs,
+        final ObjectProvider<PayloadStore> payloadStore)
             throws Exception {
 
+        final BindingMetrics bindingMetrics = bindingMetricsProvider
+            .getIfAvailable();
+        ParallelBindingStarter parallelBindingStarter = null;
+        ProvisioningProvider<ExtendedConsumerProperties<JmsConsumerProperties>, ExtendedProducerProperties<JmsProducerProperties>> bindingProvisioningProvider = provisioningProvider;
+        if (bindingMetrics != null) {
+            bindingProvisioningProvider = new MeteredProvisioningProvider(
+                bindingProvisioningProvider, bindingMetrics);
+        }
+        if (jmsBinderConfigurationProperties.isParallelStartup()) {
+            parallelBindingStarter = new ParallelBindingStarter(
+                jmsBinderConfigurationProperties.getStartupPoolSize(),
+                jmsBinderConfigurationProperties.getStartupTimeout(),
+                jmsBinderConfigurationProperties.isVirtualThreads()
+                        ? VirtualThreads.threadFactory("jms-binder-startup-", true)
+                        : null);
+            bindingProvisioningProvider = new ParallelProvisioningProvider(
+                bindingProvisioningProvider, parallelBindingStarter);
+        }
+
         final JMSMessageChannelBinder jmsMessageChannelBinder = new JMSMessageChannelBinder(
-            provisioningProvider, jmsTemplate, connectionFactory);
+            bindingProvisioningProvider, jmsTemplate, connectionFactory);
+        jmsMessageChannelBinder
+            .setParallelBindingStarter(parallelBindingStarter);
+        jmsMessageChannelBinder.setBindingMetrics(bindingMetrics);
+        jmsMessageChannelBinder.setCompressionCodecs(
+            compressionCodecs.orderedStream().collect(Collectors.toList()));
+        payloadStore.ifAvailable(jmsMessageChannelBinder::setPayloadStore);
         jmsMessageChannelBinder
             .setExtendedBindingProperties(jmsExtendedBindingProperties);
+        jmsMessageChannelBinder
+            .setConfigurationProperties(jmsBinderConfigurationProperties);
+
+        if (jmsBinderConfigurationProperties.isCacheSessions()) {
+            // Not exposed as a bean, it would compete with the application's ConnectionFactory
+            final ProducerCachingConnectionFactory producerConnectionFactory = new ProducerCachingConnectionFactory(
+                connectionFactory);
+            producerConnectionFactory.setSessionCacheSize(
+                jmsBinderConfigurationProperties.getSessionCacheSize());
+            producerConnectionFactory.setCacheProducers(
+                jmsBinderConfigurationProperties.isCacheProducers());
+            producerConnectionFactory.setIdleTimeout(
+                jmsBinderConfigurationProperties.getSessionIdleTimeout());
+            producerConnectionFactory.setAsyncSend(
+                jmsBinderConfigurationProperties.isProducerAsyncSend());
+            producerConnectionFactory.setProducerWindowSize(
+                jmsBinderConfigurationProperties.getProducerWindowSize());
+            producerConnectionFactory.afterPropertiesSet();
+            if (bindingMetrics != null) {
+                bindingMetrics.producerSessions(
+                    producerConnectionFactory::getActiveSessionCount);
+            }
+            jmsMessageChannelBinder
+                .setProducerConnectionFactory(producerConnectionFactory);
+        }
 
         return jmsMessageChannelBinder;
     }
@@ -17,4 +17,254 @@ package org.springframework.cloud.stream.binder.jms.config;
 
 public class JmsProducerProperties extends JmsCommonProperties {
 
+    /**
+     * JMS delivery mode of the messages sent by a producer.
+     */
+    public enum DeliveryMode {
+        PERSISTENT(javax.jms.DeliveryMode.PERSISTENT),
+        NON_PERSISTENT(javax.jms.DeliveryMode.NON_PERSISTENT);
+
+        private final int mode;
+
+        DeliveryMode(final int mode) {
+            this.mode = mode;
+        }
+
+        public int getMode() {
+            return this.mode;
+        }
+    }
+
+    /**
+     * How a message is sent to the queues of a bindQueueOnly producer.
+     */
+    public enum FanOutMode {
+        /**
+         * One queue after the other, on the calling thread.
+         */
+        SEQUENTIAL,
+        /**
+         * All queues at once; every queue is attempted and failures are
+         * reported after all sends completed.
+         */
+        PARALLEL,
+        /**
+         * All queues at once, each on a transacted session that is only
+         * committed when every send succeeded. Messages are sent one by one,
+         * so neither <code>batchSize</code> nor <code>reactive</code> may be
+         * set.
+         */
+        PARALLEL_TRANSACTED
+    }
+
+    private int batchSize = 1;
+
+    private long batchTimeout = 100;
+
+    private int claimCheckThreshold = 0;
+
+    private String compression;
+
+    private int compressionThreshold = 4096;
+
+    private DeliveryMode deliveryMode;
+
+    private boolean explicitQos = false;
+
+    private FanOutMode fanOut = FanOutMode.SEQUENTIAL;
+
+    private String groupKeyExpression;
+
+    private int maxInFlight = 1000;
+
+    private Integer priority;
+
+    private boolean reactive = false;
+
+    private long replyTimeout = 30000;
+
+    private boolean requestReply = false;
+
+    private Long timeToLive;
+
+    /**
+     * Number of messages sent and committed in one transacted session. A value
+     * greater than 1 enables batching; messages are then sent asynchronously
+     * and failures are reported on the binding's error channel.
+     */
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /**
+     * Maximum milliseconds a message waits for its batch to fill up before the
+     * batch is sent anyway.
+     */
+    public long getBatchTimeout() {
+        return this.batchTimeout;
+    }
+
+    /**
+     * Size in bytes from which <code>byte[]</code> payloads are put into the
+     * binder's payload store and only their reference is sent, 0 to always
+     * send them through the broker.
+     */
+    public int getClaimCheckThreshold() {
+        return this.claimCheckThreshold;
+    }
+
+    /**
+     * Name of the codec <code>byte[]</code> payloads are compressed with, or
+     * <code>null</code> to send them as they are.
+     */
+    public String getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Size in bytes from which payloads are compressed.
+     */
+    public int getCompressionThreshold() {
+        return this.compressionThreshold;
+    }
+
+    /**
+     * Delivery mode of the sent messages, or <code>null</code> for the
+     * provider's default (persistent).
+     */
+    public DeliveryMode getDeliveryMode() {
+        return this.deliveryMode;
+    }
+
+    /**
+     * How a bindQueueOnly producer sends to its consumer group queues.
+     */
+    public FanOutMode getFanOut() {
+        return this.fanOut;
+    }
+
+    /**
+     * SpEL expression evaluated against each message for its
+     * <code>JMSXGroupID</code>, or <code>null</code> to send messages without
+     * a group.
+     */
+    public String getGroupKeyExpression() {
+        return this.groupKeyExpression;
+    }
+
+    /**
+     * With <code>reactive</code>, maximum number of messages accepted but not
+     * committed yet.
+     */
+    public int getMaxInFlight() {
+        return this.maxInFlight;
+    }
+
+    /**
+     * Priority of the sent messages, from 0 to 9, or <code>null</code> for the
+     * provider's default.
+     */
+    public Integer getPriority() {
+        return this.priority;
+    }
+
+    /**
+     * Milliseconds after which a request gets a timeout instead of its reply.
+     */
+    public long getReplyTimeout() {
+        return this.replyTimeout;
+    }
+
+    /**
+     * Milliseconds the sent messages are kept by the broker, or
+     * <code>null</code> for the provider's default (unlimited).
+     */
+    public Long getTimeToLive() {
+        return this.timeToLive;
+    }
+
+    /**
+     * Whether the delivery mode, priority and time to live of the binding are
+     * used for every message. Setting any of them enables it as well.
+     */
+    public boolean isExplicitQos() {
+        return this.explicitQos;
+    }
+
+    /**
+     * Whether messages are sent by a reactive pipeline committing a batch
+     * while the next one is collected, instead of on the sending thread.
+     */
+    public boolean isReactive() {
+        return this.reactive;
+    }
+
+    /**
+     * Whether messages carrying a reply future header are sent as requests,
+     * their reply completing the future.
+     */
+    public boolean isRequestReply() {
+        return this.requestReply;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setBatchTimeout(final long batchTimeout) {
+        this.batchTimeout = batchTimeout;
+    }
+
+    public void setClaimCheckThreshold(final int claimCheckThreshold) {
+        this.claimCheckThreshold = claimCheckThreshold;
+    }
+
+    public void setCompression(final String compression) {
+        this.compression = compression;
+    }
+
+    public void setCompressionThreshold(final int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public void setDeliveryMode(final DeliveryMode deliveryMode) {
+        this.deliveryMode = deliveryMode;
+    }
+
+    public void setExplicitQos(final boolean explicitQos) {
+        this.explicitQos = explicitQos;
+    }
+
+    public void setFanOut(final FanOutMode fanOut) {
+        this.fanOut = fanOut;
+    }
+
+    public void setGroupKeyExpression(final String groupKeyExpression) {
+        this.groupKeyExpression = groupKeyExpression;
+    }
+
+    public void setMaxInFlight(final int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public void setPriority(final Integer priority) {
+        this.priority = priority;
+    }
+
+    public void setReactive(final boolean reactive) {
+        this.reactive = reactive;
+    }
+
+    public void setReplyTimeout(final long replyTimeout) {
+        this.replyTimeout = replyTimeout;
+    }
+
+    public void setRequestReply(final boolean requestReply) {
+        this.requestReply = requestReply;
+    }
+
+    public void setTimeToLive(final Long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
 }
@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.metrics;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Records what the bindings of the binder are doing.
+ * <p>
+ * The binder only depends on this interface, so that no metrics library needs
+ * to be on the classpath. When no instance is configured, bindings are not
+ * instrumented at all.
+ *
+ * @see MicrometerBindingMetrics
+ */
+public interface BindingMetrics {
+
+    /**
+     * Meters of one producer binding, looked up once when it is bound.
+     */
+    interface ProducerMeters {
+
+        void sent(long durationNanos, boolean success);
+
+    }
+
+    /**
+     * Meters of one consumer binding, looked up once when it is bound.
+     */
+    interface ConsumerMeters {
+
+        /**
+         * A message is handed to the handler.
+         *
+         * @param timestamp the JMS timestamp the producer set on the message,
+         * ignored when not set
+         */
+        void delivered(long timestamp);
+
+        void handlingStarted();
+
+        void handlingCompleted(long durationNanos, boolean success);
+
+    }
+
+    ProducerMeters producerMeters(String destination);
+
+    /**
+     * @param activeConsumers the number of consumers currently running for
+     * the binding
+     */
+    ConsumerMeters consumerMeters(
+        String destination,
+        String group,
+        IntSupplier activeConsumers);
+
+    void consumerProvisioned(
+        String destination,
+        String group,
+        long durationNanos,
+        boolean success);
+
+    void producerProvisioned(
+        String destination,
+        long durationNanos,
+        boolean success);
+
+    /**
+     * @param activeSessions the number of sessions the binder's producers
+     * currently use, out of its session cache
+     */
+    void producerSessions(IntSupplier activeSessions);
+
+    void removeProducerMeters(String destination);
+
+    void removeConsumerMeters(String destination, String group);
+
+}
@@ -0,0 +1,62 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.springframework.cloud.stream.binder.jms.metrics;
+
+import java.util.List;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+import org.springframework.cloud.stream.binder.jms.BatchMessageListenerContainer.BatchMessageListener;
+import org.springframework.cloud.stream.binder.jms.metrics.BindingMetrics.ConsumerMeters;
+
+/**
+ * Batch counterpart of {@link MeteredMessageListener}: the delivery latency is
+ * recorded for every message, the handling time once for the whole batch.
+ */
+public class MeteredBatchMessageListener implements BatchMessageListener {
+
+    private final BatchMessageListener delegate;
+
+    private final ConsumerMeters meters;
+
+    public MeteredBatchMessageListener(
+            final BatchMessageListener delegate,
+            final ConsumerMeters meters) {
+        this.delegate = delegate;
+        this.meters = meters;
+    }
+
+    @Override
+    public void onMessages(final List<Message> messages, final Session session)
+            throws JMSException {
+        for (final Message message : messages) {
+            this.meters.delivered(message.getJMSTimestamp());
+        }
+        this.meters.handlingStarted();
+        final long start = System.nanoTime();
+        boolean success = false;
+        try {
+            this.delegate.onMessages(messages, session);
+            success = true;
+        }
+        finally {
+            this.meters.handlingCompleted(System.nanoTime() - start, success);
+        }
+    }
+
+}
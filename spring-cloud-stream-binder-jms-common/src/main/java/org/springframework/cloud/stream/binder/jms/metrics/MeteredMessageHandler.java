@@ -0,0 +1,55 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.metrics;
+
+import org.springframework.cloud.stream.binder.jms.metrics.BindingMetrics.ProducerMeters;
+import org.springframework.cloud.stream.binder.jms.utils.DelegatingMessageHandler;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+
+/**
+ * Records how long each send of a producer binding takes and whether it
+ * succeeded. As the innermost wrapper, it times the send to the broker
+ * only, not the compression or the claim check of the payload.
+ */
+public class MeteredMessageHandler extends DelegatingMessageHandler {
+
+    private final ProducerMeters meters;
+
+    public MeteredMessageHandler(
+            final MessageHandler delegate,
+            final ProducerMeters meters) {
+        super(delegate);
+        this.meters = meters;
+    }
+
+    @Override
+    public void handleMessage(final Message<?> message)
+            throws MessagingException {
+        final long start = System.nanoTime();
+        boolean success = false;
+        try {
+            this.getDelegate().handleMessage(message);
+            success = true;
+        }
+        finally {
+            this.meters.sent(System.nanoTime() - start, success);
+        }
+    }
+
+}
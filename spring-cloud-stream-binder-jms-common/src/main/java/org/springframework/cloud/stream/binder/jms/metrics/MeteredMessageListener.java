@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.springframework.cloud.stream.binder.jms.metrics;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+
+import org.springframework.cloud.stream.binder.jms.metrics.BindingMetrics.ConsumerMeters;
+import org.springframework.jms.listener.SessionAwareMessageListener;
+
+/**
+ * Records the delivery latency and the handling time of the messages a
+ * listener container hands to its listener.
+ */
+public class MeteredMessageListener implements SessionAwareMessageListener<Message> {
+
+    private final Object delegate;
+
+    private final ConsumerMeters meters;
+
+    /**
+     * @param delegate a {@link MessageListener} or a
+     * {@link SessionAwareMessageListener}
+     */
+    public MeteredMessageListener(
+            final Object delegate,
+            final ConsumerMeters meters) {
+        if (!(delegate instanceof MessageListener
+                || delegate instanceof SessionAwareMessageListener)) {
+            throw new IllegalArgumentException(
+                "Unsupported message listener type: " + delegate);
+        }
+        this.delegate = delegate;
+        this.meters = meters;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onMessage(final Message message, final Session session)
+            throws JMSException {
+        this.meters.delivered(message.getJMSTimestamp());
+        this.meters.handlingStarted();
+        final long start = System.nanoTime();
+        boolean success = false;
+        try {
+            if (this.delegate instanceof SessionAwareMessageListener) {
+                ((SessionAwareMessageListener<Message>) this.delegate)
+                    .onMessage(message, session);
+            }
+            else {
+                ((MessageListener) this.delegate).onMessage(message);
+            }
+            success = true;
+        }
+        finally {
+            this.meters.handlingCompleted(System.nanoTime() - start, success);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.springframework.cloud.stream.binder.jms.metrics;
+
+import org.springframework.cloud.stream.binder.ExtendedConsumerProperties;
+import org.springframework.cloud.stream.binder.ExtendedProducerProperties;
+import org.springframework.cloud.stream.binder.jms.config.JmsConsumerProperties;
+import org.springframework.cloud.stream.binder.jms.config.JmsProducerProperties;
+import org.springframework.cloud.stream.provisioning.ConsumerDestination;
+import org.springframework.cloud.stream.provisioning.ProducerDestination;
+import org.springframework.cloud.stream.provisioning.ProvisioningException;
+import org.springframework.cloud.stream.provisioning.ProvisioningProvider;
+
+/**
+ * Records how long provisioning the destinations of each binding took.
+ */
+public class MeteredProvisioningProvider implements
+        ProvisioningProvider<ExtendedConsumerProperties<JmsConsumerProperties>, ExtendedProducerProperties<JmsProducerProperties>> {
+
+    private final ProvisioningProvider<ExtendedConsumerProperties<JmsConsumerProperties>, ExtendedProducerProperties<JmsProducerProperties>> delegate;
+
+    private final BindingMetrics metrics;
+
+    public MeteredProvisioningProvider(
+            final ProvisioningProvider<ExtendedConsumerProperties<JmsConsumerProperties>, ExtendedProducerProperties<JmsProducerProperties>> delegate,
+            final BindingMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ConsumerDestination provisionConsumerDestination(
+        final String name,
+        final String group,
+        final ExtendedConsumerProperties<JmsConsumerProperties> properties)
+            throws ProvisioningException {
+        final long start = System.nanoTime();
+        boolean success = false;
+        try {
+            final ConsumerDestination destination = this.delegate
+                .provisionConsumerDestination(name, group, properties);
+            success = true;
+            return destination;
+        }
+        finally {
+            this.metrics.consumerProvisioned(name, group,
+                System.nanoTime() - start, success);
+        }
+    }
+
+    @Override
+    public ProducerDestination provisionProducerDestination(
+        final String name,
+        final ExtendedProducerProperties<JmsProducerProperties> properties)
+            throws ProvisioningException {
+        final long start = System.nanoTime();
+        boolean success = false;
+        try {
+            final ProducerDestination destination = this.delegate
+                .provisionProducerDestination(name, properties);
+            success = true;
+            return destination;
+        }
+        finally {
+            this.metrics.producerProvisioned(name, System.nanoTime() - start,
+                success);
+        }
+    }
+
+}
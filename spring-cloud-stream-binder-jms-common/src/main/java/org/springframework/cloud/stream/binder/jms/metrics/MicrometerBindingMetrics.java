@@ -0,0 +1,268 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * {@link BindingMetrics} registering its meters with a Micrometer
+ * {@link MeterRegistry}.
+ * <p>
+ * Meters are named {@code spring.cloud.stream.jms.*} and tagged with the
+ * destination, the group for consumers and the outcome where it applies. They
+ * are created when a binding is bound and removed when it is unbound, so that
+ * recording a message never looks up the registry. Bindings of the same
+ * destination, and group for consumers, share their meters, which are removed
+ * with the last of them.
+ */
+public class MicrometerBindingMetrics implements BindingMetrics {
+
+    public static final String PREFIX = "spring.cloud.stream.jms.";
+
+    private static final String ANONYMOUS_GROUP = "anonymous";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Registration<ProducerMeters>> producerMeters = new HashMap<>();
+
+    private final Map<String, Registration<ConsumerMeters>> consumerMeters = new HashMap<>();
+
+    public MicrometerBindingMetrics(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public synchronized ProducerMeters producerMeters(final String destination) {
+        final Registration<ProducerMeters> registration = this.producerMeters
+            .computeIfAbsent(destination, this::createProducerMeters);
+        registration.references++;
+        return registration.bindingMeters;
+    }
+
+    @Override
+    public synchronized ConsumerMeters consumerMeters(
+        final String destination,
+        final String group,
+        final IntSupplier activeConsumers) {
+        final Registration<ConsumerMeters> registration = this.consumerMeters
+            .computeIfAbsent(
+                MicrometerBindingMetrics.consumerKey(destination, group),
+                key -> this.createConsumerMeters(destination, group));
+        registration.references++;
+        registration.activeConsumers.add(activeConsumers);
+        return registration.bindingMeters;
+    }
+
+    private Registration<ProducerMeters> createProducerMeters(
+        final String destination) {
+        final Tags tags = Tags.of("destination", destination);
+        final Registration<ProducerMeters> registration = new Registration<>();
+        final List<Meter> meters = registration.meters;
+        final Timer success = this.register(meters, this.timer("send",
+            "Time taken to send a message to the broker",
+            tags.and("outcome", "success")));
+        final Timer failure = this.register(meters, this.timer("send",
+            "Time taken to send a message to the broker",
+            tags.and("outcome", "failure")));
+        registration.bindingMeters = (durationNanos, succeeded) -> (succeeded
+                ? success
+                : failure).record(durationNanos, TimeUnit.NANOSECONDS);
+        return registration;
+    }
+
+    private Registration<ConsumerMeters> createConsumerMeters(
+        final String destination,
+        final String group) {
+        final Tags tags = Tags.of("destination", destination, "group",
+            MicrometerBindingMetrics.groupTag(group));
+        final Registration<ConsumerMeters> registration = new Registration<>();
+        final List<Meter> meters = registration.meters;
+        final AtomicInteger inFlight = new AtomicInteger();
+        this.register(meters, Gauge
+            .builder(MicrometerBindingMetrics.PREFIX + "in.flight", inFlight,
+                AtomicInteger::get)
+            .description("Deliveries currently handled, a batch counting as one").tags(tags)
+            .strongReference(true).register(this.meterRegistry));
+        this.register(meters, Gauge
+            .builder(MicrometerBindingMetrics.PREFIX + "consumers.active",
+                registration, Registration::getActiveConsumers)
+            .description("Consumers currently running").tags(tags)
+            .strongReference(true).register(this.meterRegistry));
+        final Timer latency = this.register(meters, this.timer(
+            "delivery.latency",
+            "Time from the producer's JMSTimestamp to the message being handed to the handler",
+            tags));
+        final Timer success = this.register(meters, this.timer("handle",
+            "Time taken by the handler", tags.and("outcome", "success")));
+        final Timer failure = this.register(meters, this.timer("handle",
+            "Time taken by the handler", tags.and("outcome", "failure")));
+        registration.bindingMeters = new ConsumerMeters() {
+
+            @Override
+            public void delivered(final long timestamp) {
+                final long latencyMillis = System.currentTimeMillis() - timestamp;
+                // Unset or in the future because of clock skew between hosts
+                if (timestamp > 0 && latencyMillis >= 0) {
+                    latency.record(latencyMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+
+            @Override
+            public void handlingStarted() {
+                inFlight.incrementAndGet();
+            }
+
+            @Override
+            public void handlingCompleted(
+                final long durationNanos,
+                final boolean succeeded) {
+                inFlight.decrementAndGet();
+                (succeeded ? success : failure)
+                    .record(durationNanos, TimeUnit.NANOSECONDS);
+            }
+        };
+        return registration;
+    }
+
+    @Override
+    public void consumerProvisioned(
+        final String destination,
+        final String group,
+        final long durationNanos,
+        final boolean success) {
+        this.recordProvisioning(
+            Tags.of("type", "consumer", "destination", destination, "group",
+                MicrometerBindingMetrics.groupTag(group)),
+            durationNanos, success);
+    }
+
+    @Override
+    public void producerProvisioned(
+        final String destination,
+        final long durationNanos,
+        final boolean success) {
+        this.recordProvisioning(
+            Tags.of("type", "producer", "destination", destination),
+            durationNanos, success);
+    }
+
+    @Override
+    public void producerSessions(final IntSupplier activeSessions) {
+        // Binder wide, lives as long as the binder
+        Gauge.builder(MicrometerBindingMetrics.PREFIX + "sessions.active",
+            activeSessions, IntSupplier::getAsInt)
+            .description("Cached sessions currently used by producers")
+            .strongReference(true).register(this.meterRegistry);
+    }
+
+    @Override
+    public synchronized void removeProducerMeters(final String destination) {
+        this.release(this.producerMeters, destination);
+    }
+
+    @Override
+    public synchronized void removeConsumerMeters(
+        final String destination,
+        final String group) {
+        this.release(this.consumerMeters,
+            MicrometerBindingMetrics.consumerKey(destination, group));
+    }
+
+    private static String consumerKey(final String destination, final String group) {
+        return destination + '#' + MicrometerBindingMetrics.groupTag(group);
+    }
+
+    private static String groupTag(final String group) {
+        return group == null || group.isEmpty()
+                ? MicrometerBindingMetrics.ANONYMOUS_GROUP
+                : group;
+    }
+
+    private void recordProvisioning(
+        final Tags tags,
+        final long durationNanos,
+        final boolean success) {
+        // Provisioning happens once per binding, there is no need to keep the timer around
+        this.timer("provision", "Time taken to provision a destination",
+            tags.and("outcome", success ? "success" : "failure"))
+            .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private <M extends Meter> M register(final List<Meter> meters, final M meter) {
+        meters.add(meter);
+        return meter;
+    }
+
+    private void release(
+        final Map<String, ? extends Registration<?>> registrations,
+        final String key) {
+        final Registration<?> registration = registrations.get(key);
+        if (registration != null && --registration.references == 0) {
+            registrations.remove(key);
+            registration.meters.forEach(this.meterRegistry::remove);
+        }
+    }
+
+    private Timer timer(
+        final String name,
+        final String description,
+        final Tags tags) {
+        return Timer.builder(MicrometerBindingMetrics.PREFIX + name)
+            .description(description).tags(tags).register(this.meterRegistry);
+    }
+
+    /**
+     * Meters shared by the bindings of a destination.
+     */
+    private static final class Registration<M> {
+
+        private final List<Meter> meters = new ArrayList<>();
+
+        /**
+         * Those of unbound bindings are kept until the last one is, reporting
+         * no consumer once their container is stopped.
+         */
+        private final List<IntSupplier> activeConsumers = new CopyOnWriteArrayList<>();
+
+        private M bindingMeters;
+
+        private int references;
+
+        private int getActiveConsumers() {
+            int active = 0;
+            for (final IntSupplier supplier : this.activeConsumers) {
+                active += supplier.getAsInt();
+            }
+            return active;
+        }
+
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.provisioning;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.cloud.stream.provisioning.ConsumerDestination;
+import org.springframework.cloud.stream.provisioning.ProvisioningException;
+
+/**
+ * A consumer destination still being provisioned in the background.
+ */
+public class DeferredConsumerDestination implements ConsumerDestination {
+
+    private final String bindingName;
+
+    private final CompletableFuture<ConsumerDestination> destination;
+
+    public DeferredConsumerDestination(final String bindingName,
+            final CompletableFuture<ConsumerDestination> destination) {
+        this.bindingName = bindingName;
+        this.destination = destination;
+    }
+
+    public String getBindingName() {
+        return this.bindingName;
+    }
+
+    /**
+     * @return the provisioned destination, waiting for the provisioning to
+     * complete if necessary.
+     */
+    public ConsumerDestination getDestination() {
+        try {
+            return this.destination.join();
+        }
+        catch (final CompletionException e) {
+            if (e.getCause() instanceof ProvisioningException) {
+                throw (ProvisioningException) e.getCause();
+            }
+            throw new ProvisioningException(
+                "Provisioning of binding [" + this.bindingName + "] failed",
+                e.getCause());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return this.getDestination().getName();
+    }
+
+    @Override
+    public String toString() {
+        return "DeferredConsumerDestination{" + "bindingName="
+                + this.bindingName + '}';
+    }
+}
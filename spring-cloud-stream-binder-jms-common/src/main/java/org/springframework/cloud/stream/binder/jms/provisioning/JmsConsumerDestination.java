@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.stream.binder.jms.provisioning;
 
+import java.util.Arrays;
+
 import javax.jms.JMSException;
 import javax.jms.Queue;
 
@@ -23,18 +25,49 @@ import org.springframework.cloud.stream.provisioning.ConsumerDestination;
 import org.springframework.cloud.stream.provisioning.ProvisioningException;
 import org.springframework.jms.support.JmsUtils;
 
+/**
+ * The queues a consumer binding reads from. A partitioned consumer may own
+ * several partition queues; their names are then exposed as a composite
+ * destination, comma separated, as understood by ActiveMQ.
+ */
 public class JmsConsumerDestination implements ConsumerDestination {
 
-    private final Queue queue;
+    private final Queue[] queues;
+
+    private String options;
 
-    public JmsConsumerDestination(final Queue queue) {
-        this.queue = queue;
+    public JmsConsumerDestination(final Queue... queues) {
+        this.queues = queues;
+    }
+
+    /**
+     * The name the consumer resolves its destination with: the name followed
+     * by the destination options, if any.
+     */
+    public String getAddress() {
+        final String name = this.getName();
+        return name == null || this.options == null ? name
+                : name + '?' + this.options;
     }
 
     @Override
     public String getName() {
+        if (this.queues == null || this.queues.length == 0) {
+            return null;
+        }
         try {
-            return this.queue.getQueueName();
+            if (this.queues.length == 1) {
+                return this.queues[0] == null ? null
+                        : this.queues[0].getQueueName();
+            }
+            final StringBuilder name = new StringBuilder();
+            for (final Queue queue : this.queues) {
+                if (name.length() > 0) {
+                    name.append(',');
+                }
+                name.append(queue.getQueueName());
+            }
+            return name.toString();
         }
         catch (final JMSException e) {
             throw new ProvisioningException("Error getting queue name",
@@ -42,8 +75,26 @@ public class JmsConsumerDestination implements ConsumerDestination {
         }
     }
 
+    public String getOptions() {
+        return this.options;
+    }
+
+    public Queue[] getQueues() {
+        return this.queues;
+    }
+
+    /**
+     * Provider specific consumer options, in the query string form used by
+     * ActiveMQ, e.g. <code>consumer.prefetchSize=10</code>.
+     */
+    public void setOptions(final String options) {
+        this.options = options;
+    }
+
     @Override
     public String toString() {
-        return "JmsConsumerDestination{" + "queue=" + this.queue + '}';
+        return "JmsConsumerDestination{" + "queues="
+                + Arrays.toString(this.queues) + ", options=" + this.options
+                + '}';
     }
 }
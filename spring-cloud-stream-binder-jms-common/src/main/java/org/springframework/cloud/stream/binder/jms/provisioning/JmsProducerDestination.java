@@ -16,7 +16,16 @@
 
 package org.springframework.cloud.stream.binder.jms.provisioning;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.JMSException;
+import javax.jms.Topic;
+
+import org.springframework.cloud.stream.binder.jms.utils.TopicPartitionRegistrar;
 import org.springframework.cloud.stream.provisioning.ProducerDestination;
+import org.springframework.cloud.stream.provisioning.ProvisioningException;
+import org.springframework.jms.support.JmsUtils;
 
 public class JmsProducerDestination implements ProducerDestination {
 
@@ -24,16 +33,33 @@ public class JmsProducerDestination implements ProducerDestination {
 
     private String[] queueNames;
 
+    private final TopicPartitionRegistrar partitionRegistrar = new TopicPartitionRegistrar();
+
+    private final List<String[]> partitionQueueNames = new ArrayList<>();
+
     public JmsProducerDestination(final String topicName) {
         this.topicName = topicName;
     }
 
-    public String[] getQueueNames() {
-        return this.queueNames;
-    }
-
-    public void setQueueNames(final String[] queueNames) {
-        this.queueNames = queueNames;
+    /**
+     * Register the destinations provisioned for a partition.
+     *
+     * @param partition the partition index.
+     * @param topic the partition's topic, <code>null</code> when binding to
+     * queues only.
+     * @param queueNames the partition's consumer group queues.
+     */
+    public synchronized void addPartition(
+        final int partition,
+        final Topic topic,
+        final String[] queueNames) {
+        if (topic != null) {
+            this.partitionRegistrar.addDestination(partition, topic);
+        }
+        while (this.partitionQueueNames.size() <= partition) {
+            this.partitionQueueNames.add(null);
+        }
+        this.partitionQueueNames.set(partition, queueNames);
     }
 
     @Override
@@ -44,12 +70,48 @@ public class JmsProducerDestination implements ProducerDestination {
 
     @Override
     public String getNameForPartition(final int partition) {
-        return this.getName();
+        final Topic topic = this.partitionRegistrar.getDestination(partition);
+        if (topic == null) {
+            return this.getName();
+        }
+        try {
+            return topic.getTopicName();
+        }
+        catch (final JMSException e) {
+            throw new ProvisioningException("Error getting topic name",
+                JmsUtils.convertJmsAccessException(e));
+        }
+    }
+
+    public int getPartitionCount() {
+        return this.partitionQueueNames.size();
+    }
+
+    public TopicPartitionRegistrar getPartitionRegistrar() {
+        return this.partitionRegistrar;
+    }
+
+    public String[] getQueueNames() {
+        return this.queueNames;
+    }
+
+    public String[] getQueueNames(final int partition) {
+        return partition < this.partitionQueueNames.size()
+                ? this.partitionQueueNames.get(partition)
+                : null;
+    }
+
+    public boolean isPartitioned() {
+        return !this.partitionQueueNames.isEmpty();
+    }
+
+    public void setQueueNames(final String[] queueNames) {
+        this.queueNames = queueNames;
     }
 
     @Override
     public String toString() {
         return "JmsProducerDestination{" + "partitionTopics=" + this.getName()
-                + '}';
+                + ", partitionCount=" + this.getPartitionCount() + '}';
     }
 }
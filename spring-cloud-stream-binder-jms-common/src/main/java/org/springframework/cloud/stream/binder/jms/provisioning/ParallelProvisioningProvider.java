@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.provisioning;
+
+import org.springframework.cloud.stream.binder.ExtendedConsumerProperties;
+import org.springframework.cloud.stream.binder.ExtendedProducerProperties;
+import org.springframework.cloud.stream.binder.jms.config.JmsConsumerProperties;
+import org.springframework.cloud.stream.binder.jms.config.JmsProducerProperties;
+import org.springframework.cloud.stream.binder.jms.utils.ParallelBindingStarter;
+import org.springframework.cloud.stream.provisioning.ConsumerDestination;
+import org.springframework.cloud.stream.provisioning.ProducerDestination;
+import org.springframework.cloud.stream.provisioning.ProvisioningException;
+import org.springframework.cloud.stream.provisioning.ProvisioningProvider;
+
+/**
+ * Provisions consumer destinations in the background through a
+ * {@link ParallelBindingStarter}, handing out a
+ * {@link DeferredConsumerDestination} right away.
+ * <p>
+ * Producer destinations are provisioned on the calling thread, as the binding
+ * needs their name immediately, but their duration is reported the same way.
+ */
+public class ParallelProvisioningProvider implements
+        ProvisioningProvider<ExtendedConsumerProperties<JmsConsumerProperties>, ExtendedProducerProperties<JmsProducerProperties>> {
+
+    private final ProvisioningProvider<ExtendedConsumerProperties<JmsConsumerProperties>, ExtendedProducerProperties<JmsProducerProperties>> delegate;
+
+    private final ParallelBindingStarter starter;
+
+    public ParallelProvisioningProvider(
+            final ProvisioningProvider<ExtendedConsumerProperties<JmsConsumerProperties>, ExtendedProducerProperties<JmsProducerProperties>> delegate,
+            final ParallelBindingStarter starter) {
+        this.delegate = delegate;
+        this.starter = starter;
+    }
+
+    @Override
+    public ConsumerDestination provisionConsumerDestination(
+        final String name,
+        final String group,
+        final ExtendedConsumerProperties<JmsConsumerProperties> properties)
+            throws ProvisioningException {
+        final String bindingName = group == null ? name : name + "." + group;
+        return new DeferredConsumerDestination(bindingName,
+            this.starter.submit(
+                bindingName,
+                "provisioning",
+                () -> this.delegate
+                    .provisionConsumerDestination(name, group, properties)));
+    }
+
+    @Override
+    public ProducerDestination provisionProducerDestination(
+        final String name,
+        final ExtendedProducerProperties<JmsProducerProperties> properties)
+            throws ProvisioningException {
+        return this.starter.time(
+            name,
+            "provisioning",
+            () -> this.delegate.provisionProducerDestination(name, properties));
+    }
+
+}
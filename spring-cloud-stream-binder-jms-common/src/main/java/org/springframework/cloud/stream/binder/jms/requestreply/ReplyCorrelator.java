@@ -0,0 +1,258 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.requestreply;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageListener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.integration.jms.JmsHeaderMapper;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.jms.connection.SingleConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Receives the replies to the requests of every request/reply producer
+ * binding of a binder on a single queue and completes the future of the
+ * request they correlate to.
+ * <p>
+ * Requests are correlated by a JMS correlation id unique within the
+ * correlator, so that it costs a counter increment and a map entry instead
+ * of a destination per request. A request not replied to within its timeout
+ * is completed with a {@link TimeoutException}; a reply arriving later, or
+ * after the future was cancelled, is logged and dropped.
+ * <p>
+ * Futures are completed on the thread receiving the replies: work that takes
+ * time should be chained with the <code>*Async</code> methods of
+ * {@link CompletableFuture}.
+ * <p>
+ * The reply queue is deleted when the correlator is destroyed if the JMS
+ * provider supports it, as ActiveMQ does; otherwise it is left to the broker.
+ */
+public class ReplyCorrelator implements DisposableBean {
+
+    private final Log logger = LogFactory.getLog(this.getClass());
+
+    private final Map<String, CompletableFuture<Message<?>>> pendingReplies = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final DefaultMessageListenerContainer listenerContainer = new DefaultMessageListenerContainer();
+
+    private final ScheduledThreadPoolExecutor timeouts;
+
+    private final MessageConverter messageConverter;
+
+    private final JmsHeaderMapper headerMapper;
+
+    /**
+     * Past the caching factories: the container holds its own connection and
+     * closes it, with its consumers, when destroyed.
+     */
+    private final ConnectionFactory targetConnectionFactory;
+
+    private final Destination replyQueue;
+
+    /**
+     * @param threadFactory the factory of the threads receiving replies and
+     * timing requests out, or <code>null</code> for daemon platform threads
+     */
+    public ReplyCorrelator(
+            final ConnectionFactory connectionFactory,
+            final String replyQueueName,
+            final MessageConverter messageConverter,
+            final JmsHeaderMapper headerMapper,
+            final ThreadFactory threadFactory) {
+        Assert.hasText(replyQueueName, "The reply queue name must not be empty");
+        this.messageConverter = messageConverter;
+        this.headerMapper = headerMapper;
+        this.targetConnectionFactory = ReplyCorrelator
+            .targetConnectionFactory(connectionFactory);
+        this.replyQueue = new JmsTemplate(connectionFactory)
+            .execute(session -> session.createQueue(replyQueueName));
+
+        this.timeouts = new ScheduledThreadPoolExecutor(1,
+            threadFactory != null ? threadFactory
+                    : ReplyCorrelator.daemonThreadFactory("jms-binder-reply-timeout-"));
+        // Most requests are replied to, their timeouts must not pile up
+        this.timeouts.setRemoveOnCancelPolicy(true);
+
+        this.listenerContainer
+            .setConnectionFactory(this.targetConnectionFactory);
+        this.listenerContainer.setDestination(this.replyQueue);
+        this.listenerContainer.setMessageListener(
+            (MessageListener) this::onReply);
+        if (threadFactory != null) {
+            this.listenerContainer
+                .setTaskExecutor(new SimpleAsyncTaskExecutor(threadFactory));
+        }
+        this.listenerContainer.afterPropertiesSet();
+    }
+
+    /**
+     * Register a request whose reply completes <code>future</code>, unless
+     * it is not received within <code>timeout</code> milliseconds.
+     *
+     * @return the correlation id the request must be sent with
+     */
+    public String register(
+        final CompletableFuture<Message<?>> future,
+        final long timeout) {
+        final String correlationId = Long
+            .toString(this.sequence.incrementAndGet(), Character.MAX_RADIX);
+        this.pendingReplies.put(correlationId, future);
+        final ScheduledFuture<?> expiry = this.timeouts.schedule(
+            () -> future.completeExceptionally(new TimeoutException(
+                "No reply to request " + correlationId + " within "
+                        + timeout + "ms")),
+            timeout, TimeUnit.MILLISECONDS);
+        // However it completes, including when cancelled by the caller
+        future.whenComplete((reply, failure) -> {
+            this.pendingReplies.remove(correlationId);
+            expiry.cancel(false);
+        });
+        return correlationId;
+    }
+
+    /**
+     * @return the queue requests must name as their <code>JMSReplyTo</code>
+     */
+    public Destination getReplyQueue() {
+        return this.replyQueue;
+    }
+
+    public void start() {
+        this.listenerContainer.start();
+    }
+
+    @Override
+    public void destroy() {
+        this.listenerContainer.destroy();
+        this.timeouts.shutdownNow();
+        for (final CompletableFuture<Message<?>> future : this.pendingReplies
+            .values()) {
+            future.completeExceptionally(new IllegalStateException(
+                "The binder was stopped before the reply was received"));
+        }
+        this.deleteReplyQueue();
+    }
+
+    private void onReply(final javax.jms.Message jmsMessage) {
+        final String correlationId;
+        try {
+            correlationId = jmsMessage.getJMSCorrelationID();
+        }
+        catch (final JMSException e) {
+            this.logger.warn("Dropping reply without a readable correlation id: "
+                    + jmsMessage,
+                e);
+            return;
+        }
+        final CompletableFuture<Message<?>> future = correlationId != null
+                ? this.pendingReplies.get(correlationId)
+                : null;
+        if (future == null) {
+            if (this.logger.isDebugEnabled()) {
+                this.logger.debug("Dropping reply " + correlationId
+                        + ", its request timed out or was cancelled");
+            }
+            return;
+        }
+        try {
+            future.complete(MessageBuilder
+                .withPayload(this.messageConverter.fromMessage(jmsMessage))
+                .copyHeaders(this.headerMapper.toHeaders(jmsMessage))
+                .build());
+        }
+        catch (final JMSException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Each correlator names its queue anew, a queue left behind would never
+     * be used again.
+     */
+    private void deleteReplyQueue() {
+        Connection connection = null;
+        try {
+            connection = this.targetConnectionFactory.createConnection();
+            // ActiveMQConnection, which the common module does not depend on
+            final Method destroyDestination = ReflectionUtils.findMethod(
+                connection.getClass(), "destroyDestination", (Class<?>[]) null);
+            if (destroyDestination == null) {
+                this.logger.info("Reply queue " + this.replyQueue
+                        + " is not deleted, the JMS provider does not support it");
+                return;
+            }
+            destroyDestination.invoke(connection, this.replyQueue);
+        }
+        catch (final JMSException | ReflectiveOperationException
+                | RuntimeException e) {
+            this.logger.warn("Reply queue " + this.replyQueue
+                    + " could not be deleted",
+                e);
+        }
+        finally {
+            JmsUtils.closeConnection(connection);
+        }
+    }
+
+    private static ConnectionFactory targetConnectionFactory(
+        final ConnectionFactory connectionFactory) {
+        ConnectionFactory targetConnectionFactory = connectionFactory;
+        while (targetConnectionFactory instanceof SingleConnectionFactory
+                && ((SingleConnectionFactory) targetConnectionFactory)
+                    .getTargetConnectionFactory() != null) {
+            targetConnectionFactory = ((SingleConnectionFactory) targetConnectionFactory)
+                .getTargetConnectionFactory();
+        }
+        return targetConnectionFactory;
+    }
+
+    private static ThreadFactory daemonThreadFactory(final String prefix) {
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+            prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+}
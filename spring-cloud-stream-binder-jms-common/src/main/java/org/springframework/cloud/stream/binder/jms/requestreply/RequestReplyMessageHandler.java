@@ -0,0 +1,89 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.requestreply;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.cloud.stream.binder.jms.utils.DelegatingMessageHandler;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.jms.support.JmsHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
+
+/**
+ * Turns the messages of a producer binding carrying a
+ * {@link #REPLY_FUTURE} header into requests, replied to through a
+ * {@link ReplyCorrelator}.
+ * <p>
+ * The future is taken off the message, which is sent with the reply queue of
+ * the correlator as <code>JMSReplyTo</code> and the id of the request as
+ * <code>JMSCorrelationID</code>: whoever answers sends its reply there with
+ * the same correlation id. Messages without the header are sent as they are.
+ */
+public class RequestReplyMessageHandler extends DelegatingMessageHandler {
+
+    /**
+     * Header holding the {@link CompletableFuture} of
+     * {@link Message Message&lt;?&gt;} completed with the reply.
+     */
+    public static final String REPLY_FUTURE = "scst_replyFuture";
+
+    private final ReplyCorrelator replyCorrelator;
+
+    private final long replyTimeout;
+
+    public RequestReplyMessageHandler(
+            final MessageHandler delegate,
+            final ReplyCorrelator replyCorrelator,
+            final long replyTimeout) {
+        super(delegate);
+        Assert.notNull(replyCorrelator, "The reply correlator must not be null");
+        this.replyCorrelator = replyCorrelator;
+        this.replyTimeout = replyTimeout;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void handleMessage(final Message<?> message)
+            throws MessagingException {
+        final Object future = message.getHeaders()
+            .get(RequestReplyMessageHandler.REPLY_FUTURE);
+        if (!(future instanceof CompletableFuture)) {
+            this.getDelegate().handleMessage(message);
+            return;
+        }
+
+        final CompletableFuture<Message<?>> reply = (CompletableFuture<Message<?>>) future;
+        final String correlationId = this.replyCorrelator.register(reply,
+            this.replyTimeout);
+        try {
+            this.getDelegate().handleMessage(MessageBuilder.fromMessage(message)
+                .removeHeader(RequestReplyMessageHandler.REPLY_FUTURE)
+                .setHeader(JmsHeaders.REPLY_TO,
+                    this.replyCorrelator.getReplyQueue())
+                .setHeader(JmsHeaders.CORRELATION_ID, correlationId)
+                .build());
+        }
+        catch (final RuntimeException e) {
+            reply.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+}
@@ -16,18 +16,35 @@
 
 package org.springframework.cloud.stream.binder.jms.utils;
 
-import java.nio.ByteBuffer;
-import java.util.UUID;
-
-import org.springframework.util.Base64Utils;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Taken from spring-cloud/spring-cloud-stream-binder-rabbit. See
+ * Originally taken from spring-cloud/spring-cloud-stream-binder-rabbit. See
  * https://github.com/spring-cloud/spring-cloud-stream-binder-rabbit/blob/master/spring-cloud-stream-binder-rabbit/src/main/java/org/springframework/cloud/stream/binder/rabbit/RabbitMessageChannelBinder.java#L90
- *
+ * <p>
+ * Names are the prefix followed by 128 bits encoded in URL safe base 64
+ * without padding, '-' being replaced by '$'. Rather than a random
+ * {@link java.util.UUID} per name, whose {@link java.security.SecureRandom}
+ * may block waiting for entropy, the bits are a random seed drawn once per
+ * JVM plus a counter, so that names never repeat within a JVM and are as
+ * unlikely to collide across JVMs as two random seeds.
  */
 public class Base64UrlNamingStrategy implements AnonymousNamingStrategy {
 
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789$_"
+        .toCharArray();
+
+    // 128 bits, 6 per character
+    private static final int ENCODED_LENGTH = 22;
+
+    private static final long SEED_HIGH = ThreadLocalRandom.current()
+        .nextLong();
+
+    private static final long SEED_LOW = ThreadLocalRandom.current().nextLong();
+
+    private static final AtomicLong COUNTER = new AtomicLong();
+
     private String prefix = "spring.gen-";
 
     public Base64UrlNamingStrategy() {
@@ -44,12 +61,39 @@ public class Base64UrlNamingStrategy implements AnonymousNamingStrategy {
 
     @Override
     public String generateName(final String prefix) {
-        final UUID uuid = UUID.randomUUID();
-        final ByteBuffer bb = ByteBuffer.wrap(new byte[16]);
-        bb.putLong(uuid.getMostSignificantBits())
-            .putLong(uuid.getLeastSignificantBits());
-        // Convert to base64 and remove trailing =
-        return prefix + Base64Utils.encodeToUrlSafeString(bb.array())
-            .replaceAll("=", "").replaceAll("-", "\\$");
+        final long high = Base64UrlNamingStrategy.SEED_HIGH;
+        final long low = Base64UrlNamingStrategy.SEED_LOW
+                + Base64UrlNamingStrategy.COUNTER.getAndIncrement();
+        final int prefixLength = prefix.length();
+        final char[] name = new char[prefixLength
+                + Base64UrlNamingStrategy.ENCODED_LENGTH];
+        prefix.getChars(0, prefixLength, name, 0);
+        for (int i = 0; i < Base64UrlNamingStrategy.ENCODED_LENGTH; i++) {
+            name[prefixLength + i] = Base64UrlNamingStrategy.ALPHABET[Base64UrlNamingStrategy
+                .sixBits(high, low, i * 6)];
+        }
+        return new String(name);
     }
+
+    /**
+     * @param offset of the first bit, counted from the most significant bit of
+     * <code>high</code>; bits past the last one of <code>low</code> are 0
+     */
+    private static int sixBits(final long high, final long low, final int offset) {
+        final long bits;
+        if (offset <= 58) {
+            bits = high >>> (58 - offset);
+        }
+        else if (offset < 64) {
+            bits = high << (offset - 58) | low >>> (122 - offset);
+        }
+        else if (offset <= 122) {
+            bits = low >>> (122 - offset);
+        }
+        else {
+            bits = low << (offset - 122);
+        }
+        return (int) bits & 0x3f;
+    }
+
 }
@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.springframework.cloud.stream.binder.jms.utils;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
+
+import javax.jms.Message;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * Hands failed messages to a {@link MessageRecoverer} on a bounded pool, so
+ * that the listener thread can acknowledge them and move on.
+ * <p>
+ * Once the backlog is full, the listener thread publishes itself, which
+ * slows consumption down instead of piling up messages in memory. The message
+ * is acknowledged before it is published: should publishing fail, it is
+ * logged and lost.
+ */
+public class DeadLetterPublisher implements DisposableBean {
+
+    private final Log logger = LogFactory.getLog(this.getClass());
+
+    private final MessageRecoverer recoverer;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    public DeadLetterPublisher(
+            final MessageRecoverer recoverer,
+            final int poolSize,
+            final int queueCapacity) {
+        this(recoverer, poolSize, queueCapacity, null);
+    }
+
+    /**
+     * @param threadFactory the factory of the publishing threads, or
+     * <code>null</code> for daemon platform threads
+     */
+    public DeadLetterPublisher(
+            final MessageRecoverer recoverer,
+            final int poolSize,
+            final int queueCapacity,
+            final ThreadFactory threadFactory) {
+        Assert.notNull(recoverer, "The message recoverer must not be null");
+        this.recoverer = recoverer;
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(poolSize);
+        this.executor.setMaxPoolSize(poolSize);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setRejectedExecutionHandler(new CallerRunsPolicy());
+        // Messages already acknowledged must not be dropped on shutdown
+        this.executor.setWaitForTasksToCompleteOnShutdown(true);
+        this.executor.setAwaitTerminationSeconds(30);
+        this.executor.setThreadNamePrefix("jms-binder-dlq-");
+        this.executor.setDaemon(true);
+        this.executor.setThreadFactory(threadFactory);
+        this.executor.initialize();
+    }
+
+    public void publish(
+        final Message message,
+        final String dlq,
+        final Throwable cause) {
+        this.executor.execute(() -> {
+            try {
+                this.recoverer.recover(message, dlq, cause);
+            }
+            catch (final RuntimeException e) {
+                this.logger.error("Could not publish the failed message to "
+                        + dlq + ", it is lost: " + message,
+                    e);
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdown();
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.utils;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.Lifecycle;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.util.Assert;
+
+/**
+ * Base of the handlers wrapping the handler of a producer binding.
+ * <p>
+ * The binder initializes, starts, stops and destroys the handler it gets
+ * back, which may be several wrappers deep: these callbacks are passed on to
+ * the delegate, so that subclasses only implement
+ * {@link #handleMessage(org.springframework.messaging.Message)}.
+ */
+public abstract class DelegatingMessageHandler
+        implements MessageHandler, Lifecycle, InitializingBean, DisposableBean {
+
+    private final MessageHandler delegate;
+
+    protected DelegatingMessageHandler(final MessageHandler delegate) {
+        Assert.notNull(delegate, "The delegate handler must not be null");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (this.delegate instanceof InitializingBean) {
+            ((InitializingBean) this.delegate).afterPropertiesSet();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (this.delegate instanceof DisposableBean) {
+            ((DisposableBean) this.delegate).destroy();
+        }
+    }
+
+    public MessageHandler getDelegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return !(this.delegate instanceof Lifecycle)
+                || ((Lifecycle) this.delegate).isRunning();
+    }
+
+    @Override
+    public void start() {
+        if (this.delegate instanceof Lifecycle) {
+            ((Lifecycle) this.delegate).start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (this.delegate instanceof Lifecycle) {
+            ((Lifecycle) this.delegate).stop();
+        }
+    }
+
+}
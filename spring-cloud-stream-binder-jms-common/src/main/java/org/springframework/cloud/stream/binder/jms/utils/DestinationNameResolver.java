@@ -18,9 +18,12 @@ package org.springframework.cloud.stream.binder.jms.utils;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import org.springframework.cloud.stream.binder.ConsumerProperties;
 import org.springframework.cloud.stream.binder.ProducerProperties;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 public class DestinationNameResolver {
@@ -43,10 +46,51 @@ public class DestinationNameResolver {
         return groupName;
     }
 
-    private String buildName(final int index, final String group) {
+    /**
+     * @return the name of the given partition of a destination or group, that
+     * is <code>&lt;name&gt;-&lt;index&gt;</code>.
+     */
+    public String buildName(final int index, final String group) {
         return String.format("%s-%s", group, index);
     }
 
+    /**
+     * Resolve the destinations a consumer binds to. A partitioned consumer gets
+     * the partitions of its instance index, or of every index in its instance
+     * index list, matching the names used by partitioned producers.
+     */
+    public Collection<DestinationNames> resolveDestinationNamesForConsumer(
+        final String destinationName,
+        final String groupName,
+        final ConsumerProperties properties) {
+
+        if (!properties.isPartitioned()) {
+            return Collections.singletonList(
+                new DestinationNames(destinationName,
+                    new String[] { groupName }));
+        }
+
+        final List<Integer> indexes = properties.getInstanceIndexList() != null
+                && !properties.getInstanceIndexList().isEmpty()
+                        ? properties.getInstanceIndexList()
+                        : Collections
+                            .singletonList(properties.getInstanceIndex());
+
+        final Collection<DestinationNames> output = new ArrayList<>(
+            indexes.size());
+        for (final Integer index : indexes) {
+            Assert.isTrue(
+                index != null && index >= 0,
+                "A partitioned consumer requires a non-negative instance index");
+            output.add(
+                new DestinationNames(this.buildName(index, destinationName),
+                    new String[] { groupName == null ? null
+                            : this.buildName(index, groupName) },
+                    index));
+        }
+        return output;
+    }
+
     public Collection<DestinationNames> resolveDestinationNameForRequiredGroups(
         final String destinationName,
         final ProducerProperties properties) {
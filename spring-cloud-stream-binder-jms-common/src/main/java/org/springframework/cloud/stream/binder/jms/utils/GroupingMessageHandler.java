@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.utils;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
+
+/**
+ * Sets the {@link #GROUP_ID} of the messages of a producer binding to the
+ * value of an expression evaluated against each message.
+ * <p>
+ * Brokers supporting message groups, such as ActiveMQ, deliver all the
+ * messages of a group to the same consumer of a queue, in order, while
+ * different groups are spread over its consumers. Messages for which the
+ * expression is <code>null</code> are sent without a group.
+ */
+public class GroupingMessageHandler extends DelegatingMessageHandler {
+
+    /**
+     * JMS defined property holding the group of a message.
+     */
+    public static final String GROUP_ID = "JMSXGroupID";
+
+    private final Expression groupKeyExpression;
+
+    private final EvaluationContext evaluationContext;
+
+    public GroupingMessageHandler(
+            final MessageHandler delegate,
+            final Expression groupKeyExpression,
+            final EvaluationContext evaluationContext) {
+        super(delegate);
+        Assert.notNull(groupKeyExpression,
+            "The group key expression must not be null");
+        this.groupKeyExpression = groupKeyExpression;
+        this.evaluationContext = evaluationContext;
+    }
+
+    @Override
+    public void handleMessage(final Message<?> message)
+            throws MessagingException {
+        final Object groupKey = this.groupKeyExpression
+            .getValue(this.evaluationContext, message);
+        this.getDelegate().handleMessage(groupKey == null ? message
+                : MessageBuilder.fromMessage(message)
+                    .setHeader(GroupingMessageHandler.GROUP_ID,
+                        groupKey.toString())
+                    .build());
+    }
+
+}
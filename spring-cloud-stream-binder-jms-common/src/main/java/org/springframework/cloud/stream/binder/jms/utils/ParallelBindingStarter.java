@@ -0,0 +1,212 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.stream.binder.BinderException;
+import org.springframework.context.Lifecycle;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * Provisions and starts bindings on a bounded pool rather than on the thread
+ * creating them, and logs how long each step took for every binding.
+ * <p>
+ * {@link #awaitStartup()} waits for everything submitted so far. Should any
+ * binding have failed or not completed within the startup timeout, the
+ * bindings registered since the previous call are stopped and a
+ * {@link BinderException} is thrown.
+ *
+ */
+public class ParallelBindingStarter implements DisposableBean {
+
+    private final Log logger = LogFactory.getLog(this.getClass());
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final long startupTimeout;
+
+    private final Object monitor = new Object();
+
+    private List<CompletableFuture<?>> pending = new ArrayList<>();
+
+    private List<Lifecycle> bindings = new ArrayList<>();
+
+    public ParallelBindingStarter(final int poolSize, final long startupTimeout) {
+        this(poolSize, startupTimeout, null);
+    }
+
+    /**
+     * @param threadFactory the factory of the startup threads, or
+     * <code>null</code> for daemon platform threads
+     */
+    public ParallelBindingStarter(
+            final int poolSize,
+            final long startupTimeout,
+            final ThreadFactory threadFactory) {
+        Assert.isTrue(poolSize > 0, "The pool size must be positive");
+        this.startupTimeout = startupTimeout;
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(poolSize);
+        this.executor.setMaxPoolSize(poolSize);
+        this.executor.setThreadNamePrefix("jms-binder-startup-");
+        this.executor.setDaemon(true);
+        this.executor.setThreadFactory(threadFactory);
+        this.executor.initialize();
+    }
+
+    /**
+     * Wait for all provisioning and startup work submitted so far.
+     * @throws BinderException if any of it failed or timed out; the bindings
+     * registered along with it have been stopped.
+     */
+    public void awaitStartup() {
+        final List<CompletableFuture<?>> futures;
+        final List<Lifecycle> started;
+        synchronized (this.monitor) {
+            futures = this.pending;
+            started = this.bindings;
+            this.pending = new ArrayList<>();
+            this.bindings = new ArrayList<>();
+        }
+        if (futures.isEmpty()) {
+            return;
+        }
+
+        final long begin = System.currentTimeMillis();
+        final long deadline = begin + this.startupTimeout;
+        BinderException failure = null;
+        for (final CompletableFuture<?> future : futures) {
+            Throwable cause = null;
+            try {
+                future.get(
+                    Math.max(0, deadline - System.currentTimeMillis()),
+                    TimeUnit.MILLISECONDS);
+            }
+            catch (final ExecutionException e) {
+                cause = e.getCause();
+            }
+            catch (final TimeoutException e) {
+                cause = e;
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cause = e;
+            }
+            if (cause != null) {
+                if (failure == null) {
+                    failure = new BinderException(
+                        "Parallel binding startup failed", cause);
+                }
+                else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+
+        if (failure != null) {
+            for (final Lifecycle binding : started) {
+                try {
+                    binding.stop();
+                }
+                catch (final RuntimeException e) {
+                    this.logger.debug("Could not stop binding " + binding, e);
+                }
+            }
+            throw failure;
+        }
+        if (this.logger.isInfoEnabled()) {
+            this.logger.info(started.size() + " bindings were started in parallel, "
+                    + (System.currentTimeMillis() - begin)
+                    + " ms were spent waiting for them");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdown();
+    }
+
+    /**
+     * Register a binding to be stopped should the startup fail.
+     */
+    public void register(final Lifecycle binding) {
+        synchronized (this.monitor) {
+            this.bindings.add(binding);
+        }
+    }
+
+    /**
+     * Run a step of a binding's startup on the pool.
+     * @param binding the binding name, used for reporting
+     * @param step what is done, e.g. <code>provisioning</code>
+     * @param task the work
+     * @return the future result of the task
+     */
+    public <T> CompletableFuture<T> submit(
+        final String binding,
+        final String step,
+        final Supplier<T> task) {
+        final CompletableFuture<T> future = CompletableFuture
+            .supplyAsync(() -> this.time(binding, step, task), this.executor);
+        synchronized (this.monitor) {
+            this.pending.add(future);
+        }
+        return future;
+    }
+
+    /**
+     * Run a step of a binding's startup on the calling thread, reporting its
+     * duration like the submitted ones.
+     */
+    public <T> T time(
+        final String binding,
+        final String step,
+        final Supplier<T> task) {
+        final long start = System.nanoTime();
+        try {
+            final T result = task.get();
+            if (this.logger.isInfoEnabled()) {
+                this.logger.info("Binding [" + binding + "] " + step + " took "
+                        + this.elapsedMillis(start) + " ms");
+            }
+            return result;
+        }
+        catch (final RuntimeException e) {
+            this.logger.error("Binding [" + binding + "] " + step
+                    + " failed after " + this.elapsedMillis(start) + " ms",
+                e);
+            throw e;
+        }
+    }
+
+    private long elapsedMillis(final long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+}
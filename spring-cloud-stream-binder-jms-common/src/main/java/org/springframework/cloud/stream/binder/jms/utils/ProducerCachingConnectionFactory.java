@@ -0,0 +1,314 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.Session;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.jms.connection.SingleConnectionFactory;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link CachingConnectionFactory} used by the binder for its producers.
+ * <p>
+ * Sessions and their per-destination producers are kept in the cache between
+ * sends, so a send no longer opens its own connection, session and producer.
+ * In addition to the plain caching factory it tracks how many sessions are
+ * currently in use and, when an idle timeout is set, releases the cached
+ * sessions and the shared connection once no send happened for that period.
+ * Sessions in use are those opened and not physically closed yet that are not
+ * back in the cache, so the sessions handed out are not wrapped themselves.
+ * <p>
+ * Asynchronous sends and the producer window are settings of the ActiveMQ
+ * connection; they are applied to the shared connection when it supports
+ * them, and ignored otherwise. So as not to change a connection the
+ * application shares, the connection is then opened from the factory behind
+ * a {@link SingleConnectionFactory} target.
+ */
+public class ProducerCachingConnectionFactory extends CachingConnectionFactory {
+
+    private final AtomicInteger openSessions = new AtomicInteger();
+
+    private final Set<LinkedList<Session>> sessionLists = Collections
+        .synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    private final ReadWriteLock evictionLock = new ReentrantReadWriteLock();
+
+    private volatile long lastAccess = System.currentTimeMillis();
+
+    private long idleTimeout;
+
+    private boolean asyncSend;
+
+    private int producerWindowSize;
+
+    private ScheduledExecutorService evictor;
+
+    public ProducerCachingConnectionFactory(
+            final ConnectionFactory targetConnectionFactory) {
+        super(targetConnectionFactory);
+        this.setReconnectOnException(true);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (this.idleTimeout > 0 && this.evictor == null) {
+            this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r,
+                    "jms-binder-session-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            final long period = Math.max(1, this.idleTimeout / 2);
+            this.evictor.scheduleWithFixedDelay(
+                this::evictIfIdle,
+                period,
+                period,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Connection createConnection() throws JMSException {
+        this.lastAccess = System.currentTimeMillis();
+        return super.createConnection();
+    }
+
+    @Override
+    public void destroy() {
+        if (this.evictor != null) {
+            this.evictor.shutdownNow();
+            this.evictor = null;
+        }
+        super.destroy();
+    }
+
+    /**
+     * @return the number of sessions currently handed out to senders.
+     */
+    public int getActiveSessionCount() {
+        int cached = 0;
+        synchronized (this.sessionLists) {
+            for (final LinkedList<Session> sessionList : this.sessionLists) {
+                synchronized (sessionList) {
+                    cached += sessionList.size();
+                }
+            }
+        }
+        return Math.max(0, this.openSessions.get() - cached);
+    }
+
+    public long getIdleTimeout() {
+        return this.idleTimeout;
+    }
+
+    public int getProducerWindowSize() {
+        return this.producerWindowSize;
+    }
+
+    public boolean isAsyncSend() {
+        return this.asyncSend;
+    }
+
+    /**
+     * Whether persistent messages are sent without waiting for the broker to
+     * acknowledge them.
+     */
+    public void setAsyncSend(final boolean asyncSend) {
+        this.asyncSend = asyncSend;
+    }
+
+    /**
+     * Milliseconds without any send after which cached sessions, producers and
+     * the shared connection are released. A value &lt;= 0 keeps them open.
+     */
+    public void setIdleTimeout(final long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Bytes of asynchronously sent messages the broker has not acknowledged
+     * yet beyond which a send blocks. A value &lt;= 0 does not limit them.
+     */
+    public void setProducerWindowSize(final int producerWindowSize) {
+        this.producerWindowSize = producerWindowSize;
+    }
+
+    @Override
+    public void resetConnection() {
+        super.resetConnection();
+        synchronized (this.sessionLists) {
+            this.sessionLists.removeIf(sessionList -> {
+                synchronized (sessionList) {
+                    return sessionList.isEmpty();
+                }
+            });
+        }
+    }
+
+    @Override
+    protected Session createSession(final Connection con, final Integer mode)
+            throws JMSException {
+        final Session session = super.createSession(con, mode);
+        this.openSessions.incrementAndGet();
+        return session;
+    }
+
+    @Override
+    protected Connection doCreateConnection() throws JMSException {
+        final ConnectionFactory targetConnectionFactory = this
+            .getTargetConnectionFactory();
+        if ((this.asyncSend || this.producerWindowSize > 0)
+                && targetConnectionFactory instanceof SingleConnectionFactory) {
+            final ConnectionFactory connectionFactory = ((SingleConnectionFactory) targetConnectionFactory)
+                .getTargetConnectionFactory();
+            if (connectionFactory != null) {
+                return connectionFactory.createConnection();
+            }
+        }
+        return super.doCreateConnection();
+    }
+
+    @Override
+    protected void prepareConnection(final Connection con) throws JMSException {
+        super.prepareConnection(con);
+        if (this.asyncSend) {
+            this.setConnectionProperty(con, "useAsyncSend", true);
+        }
+        if (this.producerWindowSize > 0) {
+            this.setConnectionProperty(con, "producerWindowSize",
+                this.producerWindowSize);
+        }
+    }
+
+    @Override
+    protected Session getCachedSessionProxy(
+        final Session target,
+        final LinkedList<Session> sessionList) {
+        this.sessionLists.add(sessionList);
+        return super.getCachedSessionProxy(
+            (Session) Proxy.newProxyInstance(target.getClass().getClassLoader(),
+                ClassUtils.getAllInterfaces(target),
+                new PhysicalSessionInvocationHandler(target)),
+            sessionList);
+    }
+
+    @Override
+    protected Session getSession(final Connection con, final Integer mode)
+            throws JMSException {
+        final Lock lock = this.evictionLock.readLock();
+        lock.lock();
+        try {
+            this.lastAccess = System.currentTimeMillis();
+            return super.getSession(con, mode);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void setConnectionProperty(
+        final Connection con,
+        final String name,
+        final Object value) {
+        final BeanWrapper wrapper = PropertyAccessorFactory
+            .forBeanPropertyAccess(con);
+        if (wrapper.isWritableProperty(name)) {
+            wrapper.setPropertyValue(name, value);
+        }
+        else {
+            this.logger.warn("Connection " + con + " does not support " + name);
+        }
+    }
+
+    private void evictIfIdle() {
+        if (System.currentTimeMillis() - this.lastAccess < this.idleTimeout) {
+            return;
+        }
+        final Lock lock = this.evictionLock.writeLock();
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            if (System.currentTimeMillis() - this.lastAccess >= this.idleTimeout
+                    && this.getActiveSessionCount() == 0) {
+                this.logger.debug(
+                    "Releasing idle cached JMS sessions and shared connection");
+                this.resetConnection();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts the physical close of a session the cache opened. Only sits
+     * behind the cached session, so it is created once per physical session.
+     */
+    private class PhysicalSessionInvocationHandler implements InvocationHandler {
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private final Session target;
+
+        PhysicalSessionInvocationHandler(final Session target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(
+            final Object proxy,
+            final Method method,
+            final Object[] args) throws Throwable {
+            if ("close".equals(method.getName())
+                    && this.closed.compareAndSet(false, true)) {
+                ProducerCachingConnectionFactory.this.openSessions
+                    .decrementAndGet();
+            }
+            try {
+                return method.invoke(this.target, args);
+            }
+            catch (final InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
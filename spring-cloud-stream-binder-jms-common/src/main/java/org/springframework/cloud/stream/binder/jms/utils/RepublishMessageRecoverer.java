@@ -16,27 +16,41 @@
 
 package org.springframework.cloud.stream.binder.jms.utils;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
+import javax.jms.MapMessage;
 import javax.jms.Message;
+import javax.jms.MessageEOFException;
+import javax.jms.ObjectMessage;
+import javax.jms.Session;
+import javax.jms.StreamMessage;
+import javax.jms.TextMessage;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.integration.jms.JmsHeaderMapper;
 import org.springframework.jms.core.JmsTemplate;
-import org.springframework.jms.core.MessagePostProcessor;
-import org.springframework.jms.support.converter.MessageConverter;
-import org.springframework.jms.support.converter.SimpleMessageConverter;
 import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.Assert;
 
 /**
  * {@link MessageRecoverer} implementation that republishes recovered messages
  * to a specified queue with the exception information stored in the message
  * headers.
  *
+ * <p>The body and properties of the failed message are copied as they are,
+ * without converting them. The stack trace is cut after
+ * {@link #setMaxStackTraceDepth(int) a number of frames} per exception and
+ * {@link #setMaxStackTraceBytes(int) a number of bytes}, the frames rendered
+ * for a given stack being reused when it fails again.
+ *
  * <p>It allows further customization through
  * {@link RepublishMessageRecoverer#additionalHeaders(Message, Throwable)}.
  */
@@ -48,12 +62,20 @@ public class RepublishMessageRecoverer implements MessageRecoverer {
 
     public static final String X_ORIGINAL_QUEUE = "x_original_queue";
 
+    private static final int MAX_CACHED_STACK_TRACES = 256;
+
     private final JmsTemplate jmsTemplate;
 
     private final Log logger = LogFactory.getLog(this.getClass());
 
     private final JmsHeaderMapper mapper;
 
+    private final Map<StackKey, String> renderedFrames = new ConcurrentHashMap<>();
+
+    private int maxStackTraceDepth = 20;
+
+    private int maxStackTraceBytes = 8192;
+
     public RepublishMessageRecoverer(final JmsTemplate jmsTemplate,
             final JmsHeaderMapper mapper) {
         this.jmsTemplate = jmsTemplate;
@@ -76,11 +98,22 @@ public class RepublishMessageRecoverer implements MessageRecoverer {
         return null;
     }
 
-    private String getStackTraceAsString(final Throwable cause) {
-        final StringWriter stringWriter = new StringWriter();
-        final PrintWriter printWriter = new PrintWriter(stringWriter, true);
-        cause.printStackTrace(printWriter);
-        return stringWriter.getBuffer().toString();
+    /**
+     * Number of frames rendered for each exception of the cause chain.
+     */
+    public void setMaxStackTraceDepth(final int maxStackTraceDepth) {
+        Assert.isTrue(maxStackTraceDepth >= 0,
+            "The stack trace depth must not be negative");
+        this.maxStackTraceDepth = maxStackTraceDepth;
+    }
+
+    /**
+     * Size in UTF-8 bytes the stack trace header is cut to.
+     */
+    public void setMaxStackTraceBytes(final int maxStackTraceBytes) {
+        Assert.isTrue(maxStackTraceBytes > 0,
+            "The stack trace size must be positive");
+        this.maxStackTraceBytes = maxStackTraceBytes;
     }
 
     @Override
@@ -90,48 +123,205 @@ public class RepublishMessageRecoverer implements MessageRecoverer {
         final Throwable cause) {
         //String deadLetterQueueName = destination.getDlq();
 
-        final MessageConverter converter = new SimpleMessageConverter();
-        Object payload = null;
+        final Map<? extends String, ? extends Object> additionalHeaders = this
+            .additionalHeaders(undeliveredMessage, cause);
+
+        this.jmsTemplate.send(dlq, session -> {
+            final Message message = this.copyBody(undeliveredMessage, session);
+            this.copyProperties(undeliveredMessage, message);
+            message.setStringProperty(
+                RepublishMessageRecoverer.X_EXCEPTION_STACKTRACE,
+                this.getStackTraceAsString(cause));
+            message.setStringProperty(
+                RepublishMessageRecoverer.X_EXCEPTION_MESSAGE,
+                cause.getCause() != null ? cause.getCause().getMessage()
+                        : cause.getMessage());
+            try {
+                message.setStringProperty(
+                    RepublishMessageRecoverer.X_ORIGINAL_QUEUE,
+                    undeliveredMessage.getJMSDestination().toString());
+            }
+            catch (final JMSException e) {
+                this.logger
+                    .error("The message destination could not be retrieved", e);
+            }
+            if (additionalHeaders != null) {
+                this.mapper.fromHeaders(
+                    new MessageHeaders(new HashMap<>(additionalHeaders)),
+                    message);
+            }
+            return message;
+        });
+    }
 
+    private Message copyBody(final Message source, final Session session)
+            throws JMSException {
         try {
-            payload = converter.fromMessage(undeliveredMessage);
+            if (source instanceof TextMessage) {
+                return session.createTextMessage(((TextMessage) source).getText());
+            }
+            if (source instanceof BytesMessage) {
+                final BytesMessage bytesMessage = (BytesMessage) source;
+                // The body was read by the listener that failed
+                bytesMessage.reset();
+                final byte[] body = new byte[(int) bytesMessage.getBodyLength()];
+                bytesMessage.readBytes(body);
+                final BytesMessage copy = session.createBytesMessage();
+                copy.writeBytes(body);
+                return copy;
+            }
+            if (source instanceof MapMessage) {
+                final MapMessage mapMessage = (MapMessage) source;
+                final MapMessage copy = session.createMapMessage();
+                for (final Enumeration<?> names = mapMessage.getMapNames(); names
+                    .hasMoreElements();) {
+                    final String name = (String) names.nextElement();
+                    copy.setObject(name, mapMessage.getObject(name));
+                }
+                return copy;
+            }
+            if (source instanceof ObjectMessage) {
+                return session
+                    .createObjectMessage(((ObjectMessage) source).getObject());
+            }
+            if (source instanceof StreamMessage) {
+                final StreamMessage streamMessage = (StreamMessage) source;
+                streamMessage.reset();
+                final StreamMessage copy = session.createStreamMessage();
+                try {
+                    while (true) {
+                        copy.writeObject(streamMessage.readObject());
+                    }
+                }
+                catch (final MessageEOFException e) {
+                    return copy;
+                }
+            }
         }
         catch (final JMSException e) {
             this.logger.error(
                 "The message payload could not be retrieved. It will be lost.",
                 e);
         }
+        return session.createMessage();
+    }
 
-        final Map<String, Object> headers = this.mapper
-            .toHeaders(undeliveredMessage);
-        headers.put(
-            RepublishMessageRecoverer.X_EXCEPTION_STACKTRACE,
-            this.getStackTraceAsString(cause));
-        headers.put(
-            RepublishMessageRecoverer.X_EXCEPTION_MESSAGE,
-            cause.getCause() != null ? cause.getCause().getMessage()
-                    : cause.getMessage());
-        try {
-            headers.put(
-                RepublishMessageRecoverer.X_ORIGINAL_QUEUE,
-                undeliveredMessage.getJMSDestination().toString());
+    private void copyProperties(final Message source, final Message target)
+            throws JMSException {
+        target.setJMSCorrelationID(source.getJMSCorrelationID());
+        target.setJMSType(source.getJMSType());
+        target.setJMSReplyTo(source.getJMSReplyTo());
+        for (final Enumeration<?> names = source.getPropertyNames(); names
+            .hasMoreElements();) {
+            final String name = (String) names.nextElement();
+            // Set by the provider, e.g. the delivery count
+            if (name.startsWith("JMSX")) {
+                continue;
+            }
+            try {
+                target.setObjectProperty(name, source.getObjectProperty(name));
+            }
+            catch (final JMSException | RuntimeException e) {
+                this.logger.debug("Property " + name
+                        + " could not be copied to the dead letter message",
+                    e);
+            }
         }
-        catch (final JMSException e) {
-            this.logger
-                .error("The message destination could not be retrieved", e);
+    }
+
+    private String getStackTraceAsString(final Throwable cause) {
+        final StringBuilder stackTrace = new StringBuilder(256);
+        // Also ends a cause chain looping back on itself
+        for (Throwable current = cause; current != null
+                && stackTrace.length() < this.maxStackTraceBytes; current = current
+                    .getCause()) {
+            if (current != cause) {
+                stackTrace.append("Caused by: ");
+            }
+            stackTrace.append(current).append('\n');
+            stackTrace.append(this.getFrames(current.getStackTrace()));
         }
-        final Map<? extends String, ? extends Object> additionalHeaders = this
-            .additionalHeaders(undeliveredMessage, cause);
-        if (additionalHeaders != null) {
-            headers.putAll(additionalHeaders);
+        return this.truncate(stackTrace);
+    }
+
+    /**
+     * Stops caching once full, failures are expected to come from a small
+     * number of places.
+     */
+    private String getFrames(final StackTraceElement[] frames) {
+        final StackKey key = new StackKey(frames, this.maxStackTraceDepth);
+        final String cachedFrames = this.renderedFrames.get(key);
+        if (cachedFrames != null) {
+            return cachedFrames;
+        }
+        final StringBuilder rendered = new StringBuilder();
+        final int depth = Math.min(frames.length, this.maxStackTraceDepth);
+        for (int i = 0; i < depth; i++) {
+            rendered.append("\tat ").append(frames[i]).append('\n');
+        }
+        if (frames.length > depth) {
+            rendered.append("\t... ").append(frames.length - depth)
+                .append(" more\n");
+        }
+        final String value = rendered.toString();
+        if (this.renderedFrames
+            .size() < RepublishMessageRecoverer.MAX_CACHED_STACK_TRACES) {
+            this.renderedFrames.put(key, value);
+        }
+        return value;
+    }
+
+    private String truncate(final CharSequence stackTrace) {
+        // A char takes at most 3 bytes in UTF-8
+        if (stackTrace.length() * 3 <= this.maxStackTraceBytes) {
+            return stackTrace.toString();
+        }
+        final byte[] bytes = stackTrace.toString()
+            .getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= this.maxStackTraceBytes) {
+            return stackTrace.toString();
+        }
+        int end = this.maxStackTraceBytes;
+        // Do not split a multi-byte character
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
         }
+        return new String(bytes, 0, end, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The frames that are rendered and the number of those that are not.
+     */
+    private static final class StackKey {
+
+        private final StackTraceElement[] frames;
+
+        private final int length;
 
-        this.jmsTemplate
-            .convertAndSend(dlq, payload, (MessagePostProcessor) message -> {
-                RepublishMessageRecoverer.this.mapper
-                    .fromHeaders(new MessageHeaders(headers), message);
-                return message;
-            });
+        private final int hashCode;
+
+        StackKey(final StackTraceElement[] frames, final int maxDepth) {
+            this.frames = frames.length > maxDepth
+                    ? Arrays.copyOf(frames, maxDepth)
+                    : frames;
+            this.length = frames.length;
+            this.hashCode = 31 * Arrays.hashCode(this.frames) + this.length;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof StackKey)) {
+                return false;
+            }
+            final StackKey key = (StackKey) other;
+            return this.length == key.length
+                    && Arrays.equals(this.frames, key.frames);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
 
     }
 
@@ -16,9 +16,14 @@
 
 package org.springframework.cloud.stream.binder.jms.utils;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+import javax.jms.JMSException;
 import javax.jms.Message;
 
 import org.slf4j.Logger;
@@ -31,32 +36,164 @@ import org.springframework.messaging.MessageHeaders;
  * constraints.
  *
  * See http://stackoverflow.com/a/30024766/2408961 for context.
- *
+ * <p>
+ * The original names of the rewritten headers are listed in the
+ * {@link #DASHED_HEADERS} property, so that {@link #toHeaders(Message)} restores
+ * them. Headers without a '-' are mapped as is, without copying them.
+ * <p>
+ * The {@link #COMPRESSION} and {@link #CLAIM_CHECK} markers are written like
+ * any other header but not read back, as they describe the JMS body the
+ * payload was restored from.
  */
 public class SpecCompliantJmsHeaderMapper extends DefaultJmsHeaderMapper {
 
+    /**
+     * JMS property holding the comma separated original names of the headers
+     * whose '-' were replaced.
+     */
+    public static final String DASHED_HEADERS = "scst_dashedHeaders";
+
+    /**
+     * JMS property holding the name of the codec the body was compressed
+     * with.
+     */
+    public static final String COMPRESSION = "scst_compression";
+
+    /**
+     * JMS property holding the reference of a payload sent through a
+     * {@link org.springframework.cloud.stream.binder.jms.claimcheck.PayloadStore}
+     * instead of the body.
+     */
+    public static final String CLAIM_CHECK = "scst_claimCheck";
+
     private static final Logger logger = LoggerFactory
         .getLogger(SpecCompliantJmsHeaderMapper.class);
 
+    private static final int MAX_CACHED_NAMES = 256;
+
+    private final Map<String, String> compliantNames = new ConcurrentHashMap<>();
+
+    private final Map<String, String[]> dashedNames = new ConcurrentHashMap<>();
+
     @Override
     public void fromHeaders(
         final MessageHeaders headers,
         final Message jmsMessage) {
+        StringBuilder rewritten = null;
+        for (final String key : headers.keySet()) {
+            if (key.indexOf('-') >= 0) {
+                if (rewritten == null) {
+                    rewritten = new StringBuilder(key);
+                }
+                else {
+                    rewritten.append(',').append(key);
+                }
+            }
+        }
+        if (rewritten == null) {
+            super.fromHeaders(headers, jmsMessage);
+            return;
+        }
+
         final Map<String, Object> compliantHeaders = new HashMap<>(
             headers.size());
         for (final Map.Entry<String, Object> entry : headers.entrySet()) {
-            if (entry.getKey().contains("-")) {
-                final String key = entry.getKey().replaceAll("-", "_");
+            final String key = entry.getKey();
+            if (key.indexOf('-') >= 0) {
+                final String compliantKey = this.toCompliantName(key);
                 SpecCompliantJmsHeaderMapper.logger.trace(
                     "Rewriting header name '{}' to conform to JMS spec",
-                    key);
-                compliantHeaders.put(key, entry.getValue());
+                    compliantKey);
+                compliantHeaders.put(compliantKey, entry.getValue());
             }
             else {
-                compliantHeaders.put(entry.getKey(), entry.getValue());
+                compliantHeaders.put(key, entry.getValue());
+            }
+        }
+        super.fromHeaders(
+            new CompliantMessageHeaders(compliantHeaders,
+                headers.getTimestamp()),
+            jmsMessage);
+        try {
+            jmsMessage.setStringProperty(
+                SpecCompliantJmsHeaderMapper.DASHED_HEADERS,
+                rewritten.toString());
+        }
+        catch (final JMSException e) {
+            SpecCompliantJmsHeaderMapper.logger.warn(
+                "Failed to record the rewritten header names, they will arrive with '_'",
+                e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> toHeaders(final Message jmsMessage) {
+        final Map<String, Object> headers = super.toHeaders(jmsMessage);
+        headers.remove(SpecCompliantJmsHeaderMapper.COMPRESSION);
+        headers.remove(SpecCompliantJmsHeaderMapper.CLAIM_CHECK);
+        final Object dashed = headers
+            .remove(SpecCompliantJmsHeaderMapper.DASHED_HEADERS);
+        if (dashed instanceof String) {
+            for (final String name : this.toDashedNames((String) dashed)) {
+                final Object value = headers.remove(this.toCompliantName(name));
+                if (value != null) {
+                    headers.put(name, value);
+                }
+            }
+        }
+        return headers;
+    }
+
+    private String toCompliantName(final String name) {
+        return this.cached(this.compliantNames, name, n -> n.replace('-', '_'));
+    }
+
+    private String[] toDashedNames(final String names) {
+        return this.cached(this.dashedNames, names, n -> {
+            final List<String> split = new ArrayList<>();
+            int start = 0;
+            for (int comma = n.indexOf(','); comma >= 0; comma = n
+                .indexOf(',', start)) {
+                split.add(n.substring(start, comma));
+                start = comma + 1;
             }
+            split.add(n.substring(start));
+            return split.toArray(new String[split.size()]);
+        });
+    }
+
+    /**
+     * Stops caching once full, header names are expected to come from a
+     * small set.
+     */
+    private <T> T cached(
+        final Map<String, T> cache,
+        final String key,
+        final Function<String, T> translation) {
+        final T cachedValue = cache.get(key);
+        if (cachedValue != null) {
+            return cachedValue;
+        }
+        final T value = translation.apply(key);
+        if (cache.size() < SpecCompliantJmsHeaderMapper.MAX_CACHED_NAMES) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Keeps the timestamp of the original headers instead of generating a new
+     * id and timestamp.
+     */
+    private static class CompliantMessageHeaders extends MessageHeaders {
+
+        private static final long serialVersionUID = 1L;
+
+        CompliantMessageHeaders(final Map<String, Object> headers,
+                final Long timestamp) {
+            super(headers, MessageHeaders.ID_VALUE_NONE,
+                timestamp == null ? -1L : timestamp);
         }
 
-        super.fromHeaders(new MessageHeaders(compliantHeaders), jmsMessage);
     }
 }
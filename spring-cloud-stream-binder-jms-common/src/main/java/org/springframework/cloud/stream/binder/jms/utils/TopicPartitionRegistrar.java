@@ -16,51 +16,94 @@
 
 package org.springframework.cloud.stream.binder.jms.utils;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Arrays;
 
 import javax.jms.Topic;
 
-import org.apache.commons.lang.math.NumberUtils;
-
+/**
+ * Resolves the topic of a partition.
+ * <p>
+ * Lookups happen on every partitioned send, so topics are kept in an array
+ * indexed by partition and the partition value is parsed without allocating.
+ */
 public class TopicPartitionRegistrar {
-    private static final Integer DEFAULT_TOPIC = -1;
 
-    private final ConcurrentHashMap<Integer, Topic> destinations;
+    private static final Topic[] NO_TOPICS = new Topic[0];
 
-    public TopicPartitionRegistrar() {
-        this.destinations = new ConcurrentHashMap<>(10);
-    }
+    private volatile Topic[] destinations = TopicPartitionRegistrar.NO_TOPICS;
 
-    public void addDestination(final Integer partition, final Topic topic) {
-        if (partition != null) {
-            this.destinations.put(partition, topic);
+    private volatile Topic nonPartitionedDestination;
+
+    /**
+     * Parse a partition header value.
+     *
+     * @param partition an {@link Integer}, any other {@link Number} or the
+     * decimal digits of the partition.
+     * @return the partition index.
+     * @throws IllegalArgumentException if the value is not a valid partition.
+     */
+    public static int parsePartition(final Object partition) {
+        if (partition instanceof Integer) {
+            return (Integer) partition;
         }
-        else {
-            this.destinations.put(TopicPartitionRegistrar.DEFAULT_TOPIC, topic);
+        if (partition instanceof Number) {
+            return ((Number) partition).intValue();
+        }
+        if (partition instanceof CharSequence) {
+            final CharSequence digits = (CharSequence) partition;
+            final int length = digits.length();
+            if (length > 0 && length < 10) {
+                int value = 0;
+                for (int i = 0; i < length; i++) {
+                    final char c = digits.charAt(i);
+                    if (c < '0' || c > '9') {
+                        value = -1;
+                        break;
+                    }
+                    value = value * 10 + (c - '0');
+                }
+                if (value >= 0) {
+                    return value;
+                }
+            }
         }
+        throw new IllegalArgumentException(String.format(
+            "The provided partition '%s' is not a valid format",
+            partition));
     }
 
-    public Topic getDestination(final Object partition) {
+    public synchronized void addDestination(
+        final Integer partition,
+        final Topic topic) {
         if (partition == null) {
-            return this.getNonPartitionedDestination();
+            this.nonPartitionedDestination = topic;
+            return;
         }
-        if (partition instanceof Integer) {
-            return this.destinations.get(partition);
+        Topic[] topics = this.destinations;
+        if (partition >= topics.length) {
+            topics = Arrays.copyOf(topics, partition + 1);
         }
-        if (partition instanceof String) {
-            return this.destinations.get(Integer.parseInt((String) partition));
+        else {
+            topics = topics.clone();
         }
-        if (NumberUtils.isDigits(partition.toString())) {
-            return this.destinations
-                .get(Integer.parseInt(partition.toString()));
+        topics[partition] = topic;
+        this.destinations = topics;
+    }
+
+    public Topic getDestination(final Object partition) {
+        if (partition == null) {
+            return this.nonPartitionedDestination;
         }
-        throw new IllegalArgumentException(String.format(
-            "The provided partition '%s' is not a valid format",
-            partition));
+        final int index = TopicPartitionRegistrar.parsePartition(partition);
+        final Topic[] topics = this.destinations;
+        return index >= 0 && index < topics.length ? topics[index] : null;
     }
 
-    private Topic getNonPartitionedDestination() {
-        return this.destinations.get(TopicPartitionRegistrar.DEFAULT_TOPIC);
+    /**
+     * @return one more than the highest registered partition.
+     */
+    public int getPartitionCount() {
+        return this.destinations.length;
     }
 
 }
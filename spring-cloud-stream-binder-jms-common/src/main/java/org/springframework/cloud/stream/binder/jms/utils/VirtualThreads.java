@@ -0,0 +1,110 @@
+/*
+ *  Copyright 2002-2017 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.springframework.cloud.stream.binder.jms.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Creates threads for the binder's own work, virtual ones when asked for and
+ * supported by the JVM.
+ * <p>
+ * Virtual threads are looked up reflectively, so that the binder still runs
+ * on Java 8; on a JVM without them, or with them only as a preview feature,
+ * daemon platform threads are created instead.
+ */
+public final class VirtualThreads {
+
+    private static final Log LOGGER = LogFactory.getLog(VirtualThreads.class);
+
+    private static final Method OF_VIRTUAL;
+
+    private static final Method NAME;
+
+    private static final Method FACTORY;
+
+    private static final AtomicBoolean WARNED = new AtomicBoolean();
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            // Fails when only available as a preview feature
+            ofVirtual.invoke(null);
+        }
+        catch (final ReflectiveOperationException | LinkageError e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+    }
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return VirtualThreads.OF_VIRTUAL != null;
+    }
+
+    /**
+     * @param prefix the name of the threads, followed by their number
+     * @param virtual whether virtual threads should be created
+     * @return a factory of virtual threads when asked for and supported,
+     * otherwise of daemon platform threads
+     */
+    public static ThreadFactory threadFactory(
+        final String prefix,
+        final boolean virtual) {
+        if (virtual) {
+            if (VirtualThreads.isSupported()) {
+                return VirtualThreads.virtualThreadFactory(prefix);
+            }
+            if (VirtualThreads.WARNED.compareAndSet(false, true)) {
+                VirtualThreads.LOGGER.warn("Virtual threads are not supported "
+                        + "by this JVM, platform threads are used instead");
+            }
+        }
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+            prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private static ThreadFactory virtualThreadFactory(final String prefix) {
+        try {
+            final Object builder = VirtualThreads.NAME.invoke(
+                VirtualThreads.OF_VIRTUAL.invoke(null), prefix, 0L);
+            return (ThreadFactory) VirtualThreads.FACTORY.invoke(builder);
+        }
+        catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException(
+                "Could not create a virtual thread factory", e);
+        }
+    }
+
+}